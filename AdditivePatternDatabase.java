@@ -0,0 +1,286 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Additive disjoint pattern databases for an N x N SlidingPuzzle.
+ *
+ * The tiles are split into disjoint groups.  For each group, a table gives the least number of
+ * moves of the group's own tiles needed to bring them to their goal cells, whatever the other
+ * tiles are and wherever the empty tile is.  A move slides one tile and so counts toward one group
+ * at most, which makes the sum over the groups an admissible estimate.  With every tile in a
+ * group of its own, the table of a tile is its Manhattan distance; with larger groups the tables
+ * also see how the tiles of a group get in each other's way.
+ *
+ * ---- Implementation Details ----
+ *
+ * A group of k tiles is indexed by their cells as the digits of a k-digit number in base N * N,
+ * the first tile of the group least significant.  Moving a tile from one cell to another changes
+ * the index of its group by (to - from) times the tile's weight, so a search can keep the indices
+ * and the estimate up to date with a few additions per move; see SlidingPuzzleSearch.
+ *
+ * A table is built by a breadth-first search backward from the goal over the group's tiles and
+ * the empty tile, the other tiles being indistinguishable.  Moving one of the group's tiles costs
+ * a move and moving any other tile is free, so the search handles one cost level at a time, free
+ * moves extending the current level.  The table then keeps the smallest distance over the cells
+ * of the empty tile.  Tables cost (N * N)^k bytes, and building them (N * N)^(k + 1) bytes and a
+ * few seconds for the default groups of five tiles on the 15-puzzle and four on the 24-puzzle.
+ * States are indexed by an int, so a group whose build would need more than Integer.MAX_VALUE of
+ * them is rejected: six tiles at most on the 15-puzzle and five on the 24-puzzle.
+ *
+ */
+public class AdditivePatternDatabase
+{
+	private static final int UNREACHED = 0xFF;
+
+	private final SlidingPuzzle puzzle;
+	private final int[][] groups;      // tiles of each group
+	private final byte[][] tables;     // distance by group index
+	private final int[] groupOf;       // group of each tile, -1 for the empty tile
+	private final int[] weight;        // weight of each tile in its group's index
+
+	/**
+	 * Builds the tables for the given groups.
+	 *
+	 * @param puzzle
+	 * @param groups  disjoint groups of tiles, together covering every tile but the empty one
+	 * @throws IllegalArgumentException if the groups do not partition the tiles, or a group has
+	 *         so many tiles that (N * N)^(k + 1) exceeds Integer.MAX_VALUE and its states cannot
+	 *         be indexed by an int
+	 */
+	public AdditivePatternDatabase(SlidingPuzzle puzzle, int[][] groups) throws IllegalArgumentException
+	{
+		int cells = puzzle.cells();
+		this.puzzle = puzzle;
+		this.groups = new int[groups.length][];
+		this.tables = new byte[groups.length][];
+		this.groupOf = new int[cells];
+		this.weight = new int[cells];
+		Arrays.fill(groupOf, -1);
+
+		int covered = 0;
+		for (int g = 0; g < groups.length; g++) {
+			this.groups[g] = groups[g].clone();
+			int w = 1;
+			long states = cells;      // states of the build, with the cell of the empty tile
+			for (int tile : groups[g]) {
+				if (tile <= 0 || tile >= cells || groupOf[tile] != -1) {
+					throw new IllegalArgumentException("Tile " + tile + " is not in exactly one group");
+				}
+				states *= cells;
+				if (states > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("Group " + g + " has too many tiles for a table of "
+							+ puzzle.size() + " x " + puzzle.size() + " boards");
+				}
+				groupOf[tile] = g;
+				weight[tile] = w;
+				w *= cells;
+				covered++;
+			}
+		}
+		if (covered != cells - 1) {
+			throw new IllegalArgumentException("The groups do not cover every tile");
+		}
+
+		for (int g = 0; g < groups.length; g++) {
+			tables[g] = build(this.groups[g]);
+		}
+	}
+
+	/**
+	 * @param puzzle
+	 * @return the database with every tile in a group of its own: the Manhattan distance
+	 */
+	public static AdditivePatternDatabase manhattan(SlidingPuzzle puzzle)
+	{
+		int[][] groups = new int[puzzle.cells() - 1][];
+		for (int tile = 1; tile < puzzle.cells(); tile++) {
+			groups[tile - 1] = new int[]{tile};
+		}
+		return new AdditivePatternDatabase(puzzle, groups);
+	}
+
+	/**
+	 * Groups the tiles in the order 1, 2, ... into groups of a fixed size, the last one smaller
+	 * if need be: 5-5-5 for the 15-puzzle and 4-4-4-4-4-4 for the 24-puzzle by default.
+	 *
+	 * @param puzzle
+	 * @param groupSize  number of tiles in a group; 0 for the default
+	 * @return the database
+	 */
+	public static AdditivePatternDatabase partitioned(SlidingPuzzle puzzle, int groupSize)
+	{
+		int tiles = puzzle.cells() - 1;
+		if (groupSize <= 0) {
+			groupSize = puzzle.size() <= 4 ? 5 : 4;
+		}
+		int[][] groups = new int[(tiles + groupSize - 1) / groupSize][];
+		for (int g = 0; g < groups.length; g++) {
+			groups[g] = new int[Math.min(groupSize, tiles - g * groupSize)];
+			for (int i = 0; i < groups[g].length; i++) {
+				groups[g][i] = g * groupSize + i + 1;
+			}
+		}
+		return new AdditivePatternDatabase(puzzle, groups);
+	}
+
+	/** @return the puzzle of the database */
+	public SlidingPuzzle puzzle()  { return puzzle; }
+
+	/** @return number of groups */
+	int groups()                   { return groups.length; }
+
+	/**
+	 * @param tile
+	 * @return the group of tile, -1 for the empty tile
+	 */
+	int groupOf(int tile)
+	{
+		return groupOf[tile];
+	}
+
+	/**
+	 * @param tile
+	 * @return the amount the index of the tile's group changes by when the tile moves one cell on
+	 */
+	int weight(int tile)
+	{
+		return weight[tile];
+	}
+
+	/**
+	 * @param g      a group
+	 * @param index  index of the cells of its tiles
+	 * @return the least number of moves of the group's tiles to bring them to their goal cells
+	 */
+	int distance(int g, int index)
+	{
+		return tables[g][index];
+	}
+
+	/**
+	 * @param tiles a board
+	 * @return the index of each group on the board
+	 */
+	int[] indices(int[] tiles)
+	{
+		int[] index = new int[groups.length];
+		for (int cell = 0; cell < tiles.length; cell++) {
+			int tile = tiles[cell];
+			if (tile != 0) {
+				index[groupOf[tile]] += cell * weight[tile];
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @param tiles a board
+	 * @return the sum of the distances of the groups: an admissible estimate of its distance to
+	 *         the goal
+	 */
+	public int estimate(int[] tiles)
+	{
+		int[] index = indices(tiles);
+		int sum = 0;
+		for (int g = 0; g < groups.length; g++) {
+			sum += tables[g][index[g]];
+		}
+		return sum;
+	}
+
+	/**
+	 * Breadth-first search over the cells of the group's tiles and of the empty tile, backward
+	 * from the goal.  Moves can be undone, so the distances from the goal are also distances to it.
+	 * A state is indexed by the group index times N * N plus the cell of the empty tile.
+	 */
+	private byte[] build(int[] group)
+	{
+		int cells = puzzle.cells();
+		int k = group.length;
+		int patterns = 1;
+		for (int i = 0; i < k; i++) {
+			patterns *= cells;
+		}
+
+		byte[] dist = new byte[patterns * cells];
+		Arrays.fill(dist, (byte) UNREACHED);
+
+		int start = puzzle.goalCell(0);
+		for (int i = 0, w = 1; i < k; i++, w *= cells) {
+			start += puzzle.goalCell(group[i]) * w * cells;
+		}
+
+		int[] level = {start};     // states at the current distance, found so far
+		int levelSize = 1;
+		dist[start] = 0;
+		int[] cellOf = new int[k];
+
+		for (int d = 0; levelSize > 0; d++) {
+			int[] next = new int[16];
+			int nextSize = 0;
+			for (int i = 0; i < levelSize; i++) {
+				int state = level[i];
+				if ((dist[state] & 0xFF) != d) {
+					continue;                   // lowered to the previous level by a free move
+				}
+				int blank = state % cells;
+				int pattern = state / cells;
+				for (int j = 0, p = pattern; j < k; j++, p /= cells) {
+					cellOf[j] = p % cells;
+				}
+
+				for (int m = 0; m < SlidingPuzzle.MOVES.length; m++) {
+					int from = puzzle.source(blank, m);
+					if (from < 0) {
+						continue;
+					}
+					int moved = -1;    // the group tile at from, if any
+					for (int j = 0; j < k; j++) {
+						if (cellOf[j] == from) {
+							moved = j;
+						}
+					}
+
+					int nextPattern = pattern;
+					if (moved >= 0) {
+						int w = 1;
+						for (int j = 0; j < moved; j++) {
+							w *= cells;
+						}
+						nextPattern += (blank - from) * w;
+					}
+					int t = nextPattern * cells + from;
+					int known = dist[t] & 0xFF;
+
+					if (moved < 0 && known > d) {          // free: same level
+						dist[t] = (byte) d;
+						if (levelSize == level.length) {
+							level = Arrays.copyOf(level, 2 * levelSize);
+						}
+						level[levelSize++] = t;
+					} else if (moved >= 0 && known == UNREACHED) {   // a move: next level
+						dist[t] = (byte) (d + 1);
+						if (nextSize == next.length) {
+							next = Arrays.copyOf(next, 2 * nextSize);
+						}
+						next[nextSize++] = t;
+					}
+				}
+			}
+			level = next;
+			levelSize = nextSize;
+		}
+
+		byte[] table = new byte[patterns];
+		Arrays.fill(table, (byte) UNREACHED);
+		for (int state = 0; state < dist.length; state++) {
+			int pattern = state / cells;
+			if ((dist[state] & 0xFF) < (table[pattern] & 0xFF)) {
+				table[pattern] = dist[state];
+			}
+		}
+		return table;
+	}
+}
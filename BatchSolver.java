@@ -0,0 +1,380 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * Solves a stream of puzzles, one per line, on a fixed pool of worker threads.  A line holds the
+ * nine tiles of a board in row-major order, 0 for the empty tile, separated by spaces or commas:
+ *
+ *     8 1 2 6 3 0 7 5 4
+ *
+ * Blank lines are skipped.  Each puzzle is solved by A* with one heuristic, and its result is
+ * written as a record headed by the number of the input line it came from.  In compact mode the
+ * record is a single line holding the number of moves and the moves as letters (see
+ * EightPuzzle.writeMoves()):
+ *
+ *     Puzzle on line 1: 5 URDLU
+ *
+ * At most window puzzles are in flight at a time.  Once the window is full the reader waits for a
+ * result to be written before reading the next line, so memory stays flat however long the input
+ * is.  In ordered mode records are written in input order, otherwise as soon as they are solved.
+ *
+ * A binary PuzzleCorpus can be solved in place of the text; its records are headed by the number
+ * of the puzzle in the corpus instead of a line number.
+ *
+ * Each search can be given a deadline.  A puzzle not solved in time gets a record saying so,
+ * "time limit reached" in compact mode, and the batch goes on with the next one.
+ *
+ */
+public class BatchSolver
+{
+	private final Heuristic heu;
+	private final int threads;
+	private final int window;
+	private final boolean ordered;
+	private final SolutionCache cache;
+	private final boolean compact;
+	private final SearchBudget budget;     // the deadline of each search, if any
+
+	/**
+	 * @param h        heuristic for every search
+	 * @param threads  number of worker threads
+	 * @param ordered  true to write the results in input order
+	 * @param cache    cache for repeated boards, or null to solve every puzzle
+	 */
+	public BatchSolver(Heuristic h, int threads, boolean ordered, SolutionCache cache)
+	{
+		this(h, threads, ordered, cache, false);
+	}
+
+	/**
+	 * @param h        heuristic for every search
+	 * @param threads  number of worker threads
+	 * @param ordered  true to write the results in input order
+	 * @param cache    cache for repeated boards, or null to solve every puzzle
+	 * @param compact  true to write each result as one line of move letters
+	 */
+	public BatchSolver(Heuristic h, int threads, boolean ordered, SolutionCache cache, boolean compact)
+	{
+		this(h, threads, ordered, cache, compact, 0);
+	}
+
+	/**
+	 * @param h        heuristic for every search
+	 * @param threads  number of worker threads
+	 * @param ordered  true to write the results in input order
+	 * @param cache    cache for repeated boards, or null to solve every puzzle
+	 * @param compact  true to write each result as one line of move letters
+	 * @param millis   time allowed for each search, in milliseconds; 0 for no limit
+	 * @throws IllegalArgumentException if threads is less than 1 or millis is negative
+	 */
+	public BatchSolver(Heuristic h, int threads, boolean ordered, SolutionCache cache, boolean compact,
+			long millis) throws IllegalArgumentException
+	{
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.heu = h;
+		this.threads = threads;
+		this.window = 4 * threads;
+		this.ordered = ordered;
+		this.cache = cache;
+		this.compact = compact;
+		this.budget = new SearchBudget(millis * 1_000_000, 0, 0, null);
+	}
+
+	/**
+	 * Solves every puzzle read from in and writes the results to out.
+	 *
+	 * @param in
+	 * @param out
+	 * @return number of puzzles read
+	 * @throws IOException if reading or writing fails
+	 */
+	public long run(BufferedReader in, Writer out) throws IOException
+	{
+		long[] lineNumber = {0};
+		return run(() -> {
+			String line;
+			do {
+				if ((line = in.readLine()) == null) {
+					return null;
+				}
+				lineNumber[0]++;
+			} while (line.trim().isEmpty());
+
+			final String puzzle = line;
+			final long number = lineNumber[0];
+			return () -> solve(puzzle, number);
+		}, out);
+	}
+
+	/**
+	 * Solves every puzzle of a corpus and writes the results to out.  Records are headed by the
+	 * number of the puzzle in the corpus, counting from 1.
+	 *
+	 * @param corpus
+	 * @param out
+	 * @return number of puzzles read
+	 * @throws IOException if writing fails
+	 */
+	public long run(PuzzleCorpus corpus, Writer out) throws IOException
+	{
+		long[] index = {0};
+		return run(() -> {
+			if (index[0] == corpus.size()) {
+				return null;
+			}
+			final long board = corpus.board(index[0]);
+			final long number = ++index[0];
+			return () -> solve(board, number);
+		}, out);
+	}
+
+	/* The puzzles of a run, as tasks producing their records; null at the end of the input */
+	private interface Source
+	{
+		Callable<String> next() throws IOException;
+	}
+
+	private long run(Source source, Writer out) throws IOException
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CompletionService<String> done = ordered ? null : new ExecutorCompletionService<>(pool);
+		ArrayDeque<Future<String>> pending = new ArrayDeque<>();   // in input order, if ordered
+		int inFlight = 0;
+		long puzzles = 0;
+
+		try {
+			Callable<String> task;
+			while ((task = source.next()) != null) {
+				if (inFlight == window) {
+					out.write(get(ordered ? pending.poll() : done.take()));
+					inFlight--;
+				}
+
+				if (ordered) {
+					pending.add(pool.submit(task));
+				} else {
+					done.submit(task);
+				}
+				inFlight++;
+				puzzles++;
+
+				inFlight -= writeFinished(pending, done, out);
+			}
+			for (; inFlight > 0; inFlight--) {
+				out.write(get(ordered ? pending.poll() : done.take()));
+			}
+			out.flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted", e);
+		} finally {
+			pool.shutdownNow();
+		}
+		return puzzles;
+	}
+
+	/**
+	 * Solves the puzzle on one input line.
+	 *
+	 * @param line
+	 * @param number  line number, for the record header
+	 * @return the record for the puzzle
+	 */
+	private String solve(String line, long number) throws IOException
+	{
+		StringBuilder record = new StringBuilder(compact ? 64 : 1024).append("Puzzle on line ").append(number);
+		record.append(compact ? ": " : ":\n");
+		try {
+			solve(new State(parseBoard(line)), record);
+		} catch (IllegalArgumentException e) {
+			record.append(compact ? "invalid puzzle format" : "Invalid puzzle format: " + line);
+		}
+		return record.append(compact ? "\n" : "\n\n").toString();
+	}
+
+	/**
+	 * Solves one puzzle of a corpus.
+	 *
+	 * @param board   packed board
+	 * @param number  number of the puzzle, for the record header
+	 * @return the record for the puzzle
+	 */
+	private String solve(long board, long number) throws IOException
+	{
+		StringBuilder record = new StringBuilder(compact ? 64 : 1024).append("Puzzle ").append(number);
+		record.append(compact ? ": " : ":\n");
+		try {
+			solve(new State(board), record);
+		} catch (IllegalArgumentException e) {
+			record.append(compact ? "invalid puzzle format" : "Invalid puzzle: " + e.getMessage());
+		}
+		return record.append(compact ? "\n" : "\n\n").toString();
+	}
+
+	/* Appends the body of the record for s0 */
+	private void solve(State s0, StringBuilder record) throws IOException
+	{
+		if (!s0.solvable()) {
+			record.append(compact ? "no solution" : "No solution exists for the following initial state:\n\n");
+			if (!compact) {
+				record.append(s0);
+			}
+		} else {
+			Move[] moves;
+			if (cache == null) {
+				SearchResult result = EightPuzzle.search(s0, heu, budget);
+				moves = result.solved() ? result.moves() : null;
+			} else {
+				moves = cache.moves(s0, heu, budget);
+			}
+			if (moves == null) {
+				// the board is solvable, so only the deadline stops its search
+				String limit = SearchBudget.Limit.DEADLINE.description();
+				record.append(compact ? limit : "No solution found: " + limit);
+			} else if (compact) {
+				record.append(moves.length).append(moves.length > 0 ? " " : "");
+				EightPuzzle.writeMoves(moves, record);
+			} else {
+				EightPuzzle.writeSolution(s0.board, s0.blank, heu, moves, record);
+			}
+		}
+	}
+
+	/**
+	 * Parses the nine tiles of a board written in row-major order.
+	 *
+	 * @param line
+	 * @return the packed board
+	 * @throws IllegalArgumentException if the line does not hold nine tiles
+	 */
+	public static long parseBoard(CharSequence line) throws IllegalArgumentException
+	{
+		long board = 0;
+		int tiles = 0;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c >= '0' && c <= '8') {
+				if (i + 1 < line.length() && Character.isDigit(line.charAt(i + 1))) {
+					throw new IllegalArgumentException("Tile out of range");
+				}
+				board = (board << 4) | (c - '0');
+				tiles++;
+			} else if (c != ' ' && c != ',' && c != '\t') {
+				throw new IllegalArgumentException("Unexpected character " + c);
+			}
+		}
+		if (tiles != 9) {
+			throw new IllegalArgumentException("A board has nine tiles");
+		}
+		return board;
+	}
+
+	/* Writes the results that are ready, without waiting for any; returns how many were written */
+	private int writeFinished(ArrayDeque<Future<String>> pending, CompletionService<String> done, Writer out)
+			throws IOException, InterruptedException
+	{
+		int written = 0;
+		if (ordered) {
+			while (!pending.isEmpty() && pending.peek().isDone()) {
+				out.write(get(pending.poll()));
+				written++;
+			}
+		} else {
+			Future<String> f;
+			while ((f = done.poll()) != null) {
+				out.write(get(f));
+				written++;
+			}
+		}
+		return written;
+	}
+
+	private static String get(Future<String> f) throws IOException, InterruptedException
+	{
+		try {
+			return f.get();
+		} catch (ExecutionException e) {
+			throw new IOException("Search failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Batch mode of PuzzleSolver.  Arguments, all optional:
+	 *
+	 *     input file        file to read, or - (the default) for standard input; a PuzzleCorpus
+	 *                       file is recognised and read as such
+	 *     --threads n       number of worker threads, default the number of processors
+	 *     --ordered         write the results in input order
+	 *     --heuristic name  a Heuristic value, default ManhattanDist
+	 *     --cache n         keep the solutions of the n most recently used boards
+	 *     --symmetric       with --cache, share solutions between symmetric boards
+	 *     --compact         write each result as one line of move letters
+	 *     --deadline ms     time allowed for each puzzle, in milliseconds; default no limit
+	 *
+	 * Results go to standard output, and with --cache the cache hits and misses to standard error.
+	 *
+	 * @param args
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String input = "-";
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean ordered = false;
+		Heuristic h = Heuristic.ManhattanDist;
+		int cacheSize = 0;
+		boolean symmetric = false;
+		boolean compact = false;
+		long deadline = 0;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--threads":   threads = Integer.parseInt(args[++i]); break;
+				case "--ordered":   ordered = true; break;
+				case "--heuristic": h = Heuristic.valueOf(args[++i]); break;
+				case "--cache":     cacheSize = Integer.parseInt(args[++i]); break;
+				case "--symmetric": symmetric = true; break;
+				case "--compact":   compact = true; break;
+				case "--deadline":  deadline = Long.parseLong(args[++i]); break;
+				default:            input = args[i];
+			}
+		}
+
+		SolutionCache cache = cacheSize > 0 ? new SolutionCache(cacheSize, symmetric) : null;
+
+		BatchSolver solver = new BatchSolver(h, threads, ordered, cache, compact, deadline);
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16);
+		if (input.equals("-")) {
+			solver.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII), 1 << 16), out);
+		} else if (PuzzleCorpus.isCorpus(Paths.get(input))) {
+			solver.run(PuzzleCorpus.open(Paths.get(input)), out);
+		} else {
+			try (BufferedReader in = Files.newBufferedReader(Paths.get(input), StandardCharsets.US_ASCII)) {
+				solver.run(in, out);
+			}
+		}
+		if (cache != null) {
+			System.err.println("Solution cache: " + cache.hits() + " hits, " + cache.misses() + " misses");
+		}
+	}
+}
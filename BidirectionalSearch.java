@@ -0,0 +1,358 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Bidirectional A* search for the 8-puzzle.  Every move can be undone by its inverse, so besides
+ * the usual forward search from the initial state toward the goal, a second search runs from the
+ * goal toward the initial state.  Each search orders its frontier by g + h, where h estimates the
+ * distance to the other end: the goal for the forward search and the initial state for the
+ * backward one.  The search with fewer states on its frontier is expanded next.
+ *
+ * Whenever a board has been reached from both sides, the two paths through it form a solution,
+ * and the cheapest such solution so far is remembered.  Every cheaper solution would have to pass
+ * through a frontier state of each search whose cost estimate is below its cost, so as soon as
+ * the lowest cost on one of the two frontiers is no less than the remembered solution, that
+ * solution is optimal and the search stops.  Such a solution would also have to join a frontier
+ * state of each search by at least one move, so the search stops as well once the remembered
+ * solution is no longer than the fewest moves on the forward frontier plus the fewest on the
+ * backward one, plus one.  With a weak estimate this second test ends the search much sooner.
+ *
+ * The forward search uses the estimates of State.  Estimates toward the initial state are
+ * computed from the positions of its tiles, with the tile-position heuristics of State.  For the
+ * pattern database heuristics the backward estimate is |d(n) - d(s0)|, d being the exact distance
+ * to the goal, which by the triangle inequality is a lower bound on the distance between n and s0;
+ * the larger of that and the Manhattan-based estimate is used.  The linear conflict and walking
+ * distance tables only hold estimates toward the goal, so the backward search falls back to the
+ * Manhattan distance for those two heuristics.
+ *
+ * The counters of the SearchResult add up the work of both searches; the peak sizes are those of
+ * the two frontiers, and of the two closed lists, together.
+ *
+ * Within a SearchBudget, the states kept are those reached by either search.  A stopped result
+ * leads to the forward state of lowest estimate expanded, or along the cheapest solution if one
+ * has been found, and its lower bound is the one the stopping tests above compare with.
+ *
+ * This search is experimental.  It only pays off with the weak TileMismatch estimate: on the ten
+ * depth-28 puzzles of the benchmark corpus it expands 0.15 times as many states as
+ * EightPuzzle.search(), and 0.60 times as many on the depth-20 ones.  With every other heuristic
+ * it expands more, on nearly every puzzle: 1.28 times as many with ManhattanDist, 1.42 with
+ * LinearConflict, 1.38 with WalkingDistance, 1.52 with DoubleMoveHeuristic and 1.8 to 2 with the
+ * pattern databases at depth 28, and 1.5 to 2.1 at depth 20.  With an informed estimate each
+ * search heads for the far end on its own, so by the time one frontier has no state cheaper than
+ * the solution, as the stopping tests above need, each search has done much of the work of A*.
+ * Use EightPuzzle.search() instead unless the heuristic is TileMismatch.
+ *
+ */
+public class BidirectionalSearch
+{
+	private final State start;
+	private final Heuristic heu;
+
+	private final Frontier forward;
+	private final Frontier backward;
+
+	private int best = Integer.MAX_VALUE;   // cost of the cheapest solution found so far
+	private State meetForward;              // its meeting board as reached by each search
+	private State meetBackward;
+	private State promising;                // forward state of lowest estimate expanded
+	private int promisingEstimate = Integer.MAX_VALUE;
+	private SearchBudget.Limit limit;       // the limit the search ran into, null if none
+	private int lowerBound;                 // if stopped, least number of moves of a solution
+
+	private final SearchResult.Counters count = new SearchResult.Counters();
+
+	/**
+	 * @param s0  initial state; it is not modified
+	 * @param h   heuristic
+	 */
+	public BidirectionalSearch(State s0, Heuristic h)
+	{
+		start = s0;
+		heu = h;
+
+		forward = new Frontier(new State(s0.board), State.GOAL);
+		backward = new Frontier(new State(State.GOAL), s0.board);
+	}
+
+	/**
+	 * Runs the search.
+	 *
+	 * @return the solution string produced by EightPuzzle.solutionPath(), or "No solution found"
+	 *         if the initial state cannot reach the goal
+	 */
+	public String solve()
+	{
+		return search().solution();
+	}
+
+	/**
+	 * Runs the search, and publishes its result to SearchEvents.
+	 *
+	 * @return the result, without a solution if the initial state cannot reach the goal
+	 */
+	public SearchResult search()
+	{
+		return search(SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs the search within a budget, checked before every expansion as in
+	 * EightPuzzle.search(State, Heuristic, SearchBudget), and publishes its result to SearchEvents.
+	 *
+	 * @param budget  limits of the search
+	 * @return the result, without a solution if the initial state cannot reach the goal or the
+	 *         search was stopped by its budget
+	 */
+	public SearchResult search(SearchBudget budget)
+	{
+		long begin = System.nanoTime();
+		Move[] moves = null;
+		if (start.solvable()) {
+			forward.closed = ClosedList.acquire();
+			backward.closed = ClosedList.acquire();
+			try {
+				moves = meet(budget, begin);
+			} finally {
+				forward.closed.release();
+				backward.closed.release();
+			}
+		}
+
+		if (limit != null) {
+			Move[] partial = best < Integer.MAX_VALUE ? meetingPath()
+					: promising == null ? new Move[0] : EightPuzzle.solutionMoves(promising);
+			return SearchEvents.publish(new SearchResult("Bidirectional A*", start, heu, count,
+					System.nanoTime() - begin, limit, partial, lowerBound));
+		}
+		return SearchEvents.publish(
+				new SearchResult("Bidirectional A*", start, heu, moves, count, System.nanoTime() - begin));
+	}
+
+	/*
+	 * Runs both searches until they meet on a shortest path; returns its moves, null if none or if
+	 * the budget ran out first, which leaves limit set
+	 */
+	private Move[] meet(SearchBudget budget, long begin)
+	{
+		if (start.isGoalState()) {
+			return new Move[0];
+		}
+
+		while (true) {
+			int fForward = forward.minCost();
+			int fBackward = backward.minCost();
+			int bound = Math.max(Math.max(fForward, fBackward), forward.minMoves() + backward.minMoves() + 1);
+			if (best <= bound) {
+				break;
+			}
+			limit = budget.check(begin, count.expanded, forward.reached.size() + backward.reached.size());
+			if (limit != null) {
+				lowerBound = bound;
+				return null;
+			}
+			if (fBackward == Integer.MAX_VALUE
+					|| (fForward != Integer.MAX_VALUE && forward.open <= backward.open)) {
+				expand(forward, backward);
+			} else {
+				expand(backward, forward);
+			}
+		}
+		return best == Integer.MAX_VALUE ? null : meetingPath();
+	}
+
+	/* The moves of the cheapest solution found: forward from s0 to the meeting board, then the
+	   backward moves undone back to the goal */
+	private Move[] meetingPath()
+	{
+		Move[] moves = new Move[best];
+		int n = meetForward.numMoves;
+		for (State s = meetForward; s.predecessor != null; s = s.predecessor) {
+			moves[--n] = s.move;
+		}
+		n = meetForward.numMoves;
+		for (State s = meetBackward; s.predecessor != null; s = s.predecessor) {
+			moves[n++] = s.move.inverse();
+		}
+		return moves;
+	}
+
+	/**
+	 * Expands the frontier state of lowest cost in one direction, and checks each successor
+	 * against the states reached in the other direction.
+	 */
+	private void expand(Frontier from, Frontier other)
+	{
+		int f = from.minCost();
+		State s = from.pop();
+		from.closed.addState(s);
+		count.expanded++;
+		if (from == forward && f - s.numMoves < promisingEstimate) {
+			promising = s;
+			promisingEstimate = f - s.numMoves;
+		}
+
+		for (Move m : MoveTable.legalMoves(s.blank, heu.doubleMoves())) {
+			State t = s.successorState(m);
+			count.generated++;
+
+			State known = from.reached.get(t.board);
+			if (known != null && known.numMoves <= t.numMoves) {
+				count.duplicates++;
+				continue;
+			}
+			if (from.closed.contains(t)) {
+				from.closed.removeState(t);
+				count.reopened++;
+			} else if (known != null) {
+				from.open--;         // the known state is superseded on the frontier
+				from.withMoves[known.numMoves]--;
+			}
+			from.reached.put(t);
+			from.push(t);
+
+			State o = other.reached.get(t.board);
+			if (o != null && t.numMoves + o.numMoves < best) {
+				best = t.numMoves + o.numMoves;
+				meetForward = from == forward ? t : o;
+				meetBackward = from == forward ? o : t;
+			}
+		}
+		count.open(forward.open + backward.open);
+		count.closed(forward.closed.size() + backward.closed.size());
+	}
+
+	/**
+	 * The states reached by one of the two searches.  The frontier is a bucket queue indexed by
+	 * cost, each bucket a stack linked through State.next.  A state whose board has since been
+	 * reached more cheaply stays in its bucket and is skipped when it comes up.  The live states
+	 * on the frontier are also counted by number of moves.  A state pushed has one move more than
+	 * a state that was on the frontier, so the fewest moves on it never decrease.
+	 */
+	private final class Frontier
+	{
+		final StateIndex reached = new StateIndex();   // cheapest state reached for each board
+		ClosedList closed;                             // taken for the duration of search()
+		int open = 0;                                  // number of live states on the frontier
+		int[] withMoves = new int[64];                 // number of them by number of moves
+
+		private final int[] targetCell = new int[9];   // cell of each tile on the target board
+		private final int targetDistance;              // d(target) for the pattern databases
+		private final boolean toGoal;                  // whether the target is the goal
+		private State[] buckets = new State[64];
+		private int minBucket = 0;
+		private int minMoves = 0;
+
+		Frontier(State root, long target)
+		{
+			for (int cell = 0; cell < 9; cell++) {
+				targetCell[State.tileAt(target, cell)] = cell;
+			}
+			toGoal = target == State.GOAL;
+			targetDistance = usesDatabase()
+					? PatternDatabase.get().distance(target, heu.doubleMoves()) : 0;
+
+			reached.put(root);
+			push(root);
+		}
+
+		void push(State s)
+		{
+			int f = s.numMoves + estimate(s.board);
+			if (f >= buckets.length) {
+				buckets = Arrays.copyOf(buckets, Math.max(2 * buckets.length, f + 1));
+			}
+			s.next = buckets[f];
+			buckets[f] = s;
+			minBucket = Math.min(minBucket, f);
+			open++;
+			if (s.numMoves >= withMoves.length) {
+				withMoves = Arrays.copyOf(withMoves, 2 * withMoves.length);
+			}
+			withMoves[s.numMoves]++;
+		}
+
+		/* Lowest cost on the frontier, Integer.MAX_VALUE if it is empty */
+		int minCost()
+		{
+			while (minBucket < buckets.length) {
+				State s = buckets[minBucket];
+				if (s == null) {
+					minBucket++;
+				} else if (reached.get(s.board) != s) {
+					buckets[minBucket] = s.next;    // superseded
+				} else {
+					return minBucket;
+				}
+			}
+			return Integer.MAX_VALUE;
+		}
+
+		/* Fewest moves of a state on the frontier, Integer.MAX_VALUE / 2 if it is empty */
+		int minMoves()
+		{
+			while (minMoves < withMoves.length && withMoves[minMoves] == 0) {
+				minMoves++;
+			}
+			return minMoves < withMoves.length ? minMoves : Integer.MAX_VALUE / 2;
+		}
+
+		/* Removes a state of lowest cost; minCost() must have found one */
+		State pop()
+		{
+			minCost();
+			State s = buckets[minBucket];
+			buckets[minBucket] = s.next;
+			s.next = null;
+			open--;
+			withMoves[s.numMoves]--;
+			return s;
+		}
+
+		/* Admissible estimate of the number of moves between board and the target */
+		int estimate(long board)
+		{
+			if (toGoal) {
+				return State.estimate(board, heu);
+			}
+
+			int mismatched = 0, manhattan = 0;
+			for (int cell = 0; cell < 9; cell++) {
+				int tile = State.tileAt(board, cell);
+				if (tile != 0 && targetCell[tile] != cell) {
+					mismatched++;
+					manhattan += Math.abs(cell / 3 - targetCell[tile] / 3)
+							+ Math.abs(cell % 3 - targetCell[tile] % 3);
+				}
+			}
+
+			// the heuristic of the search if it only looks at tile positions, else the Manhattan
+			// distance, halved for double moves
+			Heuristic h;
+			switch (heu) {
+				case TileMismatch:
+				case ManhattanDist:
+				case DoubleMoveHeuristic:
+					h = heu;
+					break;
+				case DoubleMovePatternDatabase:
+					h = Heuristic.DoubleMoveHeuristic;
+					break;
+				default:
+					h = Heuristic.ManhattanDist;
+			}
+			int estimate = State.estimate(h, board, mismatched, manhattan);
+			if (usesDatabase()) {
+				int d = PatternDatabase.get().distance(board, heu.doubleMoves());
+				estimate = Math.max(estimate, Math.abs(d - targetDistance));
+			}
+			return estimate;
+		}
+
+		private boolean usesDatabase()
+		{
+			return heu == Heuristic.PatternDatabase || heu == Heuristic.DoubleMovePatternDatabase;
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ *
+ * The CLOSED list of the A* algorithm, kept as an array over the whole state space indexed by
+ * PermutationRank.rank(board).  Each entry holds the number of moves of the closed state with
+ * that board plus one, so every operation is a single array access and closed states need not be
+ * kept alive.
+ *
+ * Reopening compares a successor t with the closed state of the same board.  Both have the same
+ * heuristic value, so t.cost() is smaller exactly when t.numMoves is, and the number of moves is
+ * all that needs to be remembered.
+ *
+ * The table takes 1.45 MB, so it is emptied rather than allocated again: each entry also holds
+ * the generation it was written in, and clear() starts a new generation, which makes every
+ * older entry count as absent.  The searches take their lists with acquire() and give them back
+ * with release(), and each thread keeps up to POOLED of them for its next searches.
+ *
+ * A list can also be made for one share of the boards, such as each thread of ParallelSearch owns;
+ * its table is as many times smaller as there are shares.  The key of a board is its rank times
+ * a constant prime to 9!, modulo 9!, which permutes the ranks and scatters neighbouring boards;
+ * the shares are consecutive ranges of keys, so the boards of any part of the search spread evenly
+ * over them.
+ *
+ */
+public class ClosedList
+{
+	private static final int POOLED = 2;               // most lists kept by a thread
+	private static final int MOVES = 0xFFFF;           // low half of an entry: number of moves + 1
+	private static final int GENERATIONS = 0xFFFF;     // high half: generation, from 1
+	private static final long MIX = 2654435761L;       // prime to 9!, so it permutes the keys
+
+	private static final ThreadLocal<ArrayDeque<ClosedList>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private final int[] moves;
+	private final int parts;
+	private final int first;                           // first key of the share
+	private int generation = 1;
+	private int size = 0;
+
+	/**
+	 * Constructs an empty list for every board.
+	 */
+	public ClosedList()
+	{
+		this(1, 0);
+	}
+
+	/**
+	 * Constructs an empty list for one share of the boards; no board of another share may be
+	 * added to it.
+	 *
+	 * @param parts number of shares the boards are split into
+	 * @param part  the share, from 0 to parts - 1
+	 */
+	ClosedList(int parts, int part)
+	{
+		this.parts = parts;
+		first = part * shareSize(parts);
+		moves = new int[shareSize(parts)];
+	}
+
+	/**
+	 * @param board  packed board
+	 * @param parts  number of shares the boards are split into
+	 * @return the share of the board, from 0 to parts - 1
+	 */
+	static int share(long board, int parts)
+	{
+		return key(PermutationRank.rank(board)) / shareSize(parts);
+	}
+
+	/**
+	 * @return an empty list for a search on this thread; release() it when the search is done
+	 */
+	static ClosedList acquire()
+	{
+		ClosedList list = POOL.get().poll();
+		if (list == null) {
+			return new ClosedList();
+		}
+		list.clear();
+		return list;
+	}
+
+	/**
+	 * Gives the list back to this thread for a later search.  It must no longer be used.
+	 */
+	void release()
+	{
+		ArrayDeque<ClosedList> pool = POOL.get();
+		if (pool.size() < POOLED) {
+			pool.push(this);
+		}
+	}
+
+	/**
+	 * Empties the list without touching the table, by starting a new generation.
+	 */
+	public void clear()
+	{
+		size = 0;
+		if (++generation > GENERATIONS) {
+			Arrays.fill(moves, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * @return number of states on the list
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Closes the board of s.
+	 *
+	 * Precondition: no state with the board of s is on the list, and s has fewer than 65535 moves.
+	 *
+	 * @param s
+	 */
+	public void addState(State s)
+	{
+		moves[index(s)] = generation << 16 | (s.numMoves + 1);
+		size++;
+	}
+
+	/**
+	 * @param s
+	 * @return true if a state with the board of s is on the list
+	 */
+	public boolean contains(State s)
+	{
+		return moves[index(s)] >>> 16 == generation;
+	}
+
+	/**
+	 * @param s
+	 * @return the number of moves of the closed state with the board of s, or -1 if there is none
+	 */
+	public int numMoves(State s)
+	{
+		int entry = moves[index(s)];
+		return entry >>> 16 == generation ? (entry & MOVES) - 1 : -1;
+	}
+
+	/**
+	 * Reopens the board of s.
+	 *
+	 * @param s
+	 * @throws IllegalStateException if no state with the board of s is on the list
+	 */
+	public void removeState(State s) throws IllegalStateException
+	{
+		int r = index(s);
+		if (moves[r] >>> 16 != generation) {
+			throw new IllegalStateException("State not found in the list");
+		}
+		moves[r] = 0;
+		size--;
+	}
+
+	/* Entry of the board of s in the table; a list of every board needs no key */
+	private int index(State s)
+	{
+		return parts == 1 ? s.rank() : key(s.rank()) - first;
+	}
+
+	private static int key(int rank)
+	{
+		return (int) (rank * MIX % PermutationRank.SIZE);
+	}
+
+	private static int shareSize(int parts)
+	{
+		return (PermutationRank.SIZE + parts - 1) / parts;
+	}
+}
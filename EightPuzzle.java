@@ -1,7 +1,12 @@
 package edu.iastate.cs472.proj1;
 
-import java.awt.Taskbar.State;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  *  
@@ -11,6 +16,15 @@ import java.io.FileNotFoundException;
 
 public class EightPuzzle 
 {
+	/* The text between two boards of a solution string, by move */
+	private static final String[] MOVE_TEXT = new String[Move.values().length]; 
+	
+	static {
+		for (Move m : Move.values()){
+			MOVE_TEXT[m.ordinal()] = "\n\n" + m + "\n\n"; 
+		}
+	}
+	
 	/**
 	 * This static method solves an 8-puzzle with a given initial state using three heuristics. The 
 	 * first two, allowing single moves only, compare the board configuration with the goal configuration 
@@ -24,24 +38,45 @@ public class EightPuzzle
 	 * 
 	 * 
 	 * Check to see if the puzzle is solvable using the `s0.solvable()` code. If not, we return. 
-	 * Created a StringBuilder to accumulate the solutions for all 3 heuristics 
-	 * Loop through the 3 heuristics, call A star for each and append results to the solution string. 
+	 * Submit one A* search per heuristic to the common fork-join pool, so the three run in 
+	 * parallel; each search keeps its heuristic and lists to itself and only reads s0. 
+	 * Join the searches in order and append their results to the solution string. 
 	 * @param s0
 	 * @return a string specified in the javadoc below
 	 */
 	public static String solve8Puzzle(State s0)
+	{
+		return solve8Puzzle(s0, null); 
+	}
+
+	
+	/**
+	 * Same as solve8Puzzle(s0), except that each search goes through a SolutionCache, so boards 
+	 * solved before (or being solved by another thread) are answered without a new search.  The 
+	 * output is the same. 
+	 * 
+	 * @param s0
+	 * @param cache  solution cache, or null to always search 
+	 * @return the same string as solve8Puzzle(s0) 
+	 */
+	public static String solve8Puzzle(State s0, SolutionCache cache)
 	{
 		if (!s0.solvable()){
 			return "No solution exists for the following initial state:\n\n" + s0.toString(); 
 		}
 		
 		Heuristic h[] = {Heuristic.TileMismatch, Heuristic.ManhattanDist, Heuristic.DoubleMoveHeuristic }; 
-		String [] moves = new String[3]; 
+		List<ForkJoinTask<String>> moves = new ArrayList<>(); 
+		StringBuilder solution = new StringBuilder(); 
 		
-		for (int i = 0; i < 3; i++)
+		for (Heuristic heuristic : h)
+		{
+			moves.add(ForkJoinPool.commonPool().submit(
+					() -> cache == null ? AStar(s0, heuristic) : cache.solve(s0, heuristic))); 
+		}
+		for (ForkJoinTask<String> search : moves)
 		{
-			moves[i] = AStar(s0, h[i]); 
-			solution.append(moved[i]).append("\n"); 
+			solution.append(search.join()).append("\n"); 
 		}
 		
 		
@@ -58,21 +93,24 @@ public class EightPuzzle
 	 * ---------------Implementation Details--------------------
 	 * 
 	 * Implemented the A* algorithm. 
-	 * Initialize OPEN and CLOSED lists using OrderedStateList 
-	 * We add the initial state to OPEN 
+	 * OPEN and CLOSED are kept as nodes of the thread's NodeArena, a bucket queue by cost with a 
+	 * table of the latest node of each board; they hand out states in the same order as a bucketed 
+	 * OrderedStateList and a ClosedList would.  We add a node for the initial state to OPEN; s0 
+	 * itself is not modified so that searches with different heuristics can share it 
 	 * 
 	 * We then enter a loop that coninutes till OPEN is empty: 
 	 * 	Remove the first state from OPEN 
 	 * 	If it's goal state, we return the solution path
 	 * 	Add the state to CLOSED. 
-	 * 	Generate all possible successor states: 
+	 * 	Generate the successor states for the legal moves listed in the MoveTable, including 
+	 * 	double moves if the heuristic allows them: 
 	 * 		- if a successor is not in open or closed, add it to open 
 	 * 		- if it's in open with a higher cost, remove it from open and add new version
-	 * 		- if it's in closed with a higher cost, remove it from closed and add it to open 
+	 * 		- if it's in closed with more moves (hence a higher cost), remove it from closed and add it to open 
 	 * 
 	 * If we exit the loop without having found a solution, then return a messsage. 
 	 * 
-	 * 
+	 * The search itself is done by search(), which also counts the work it does. 
 	 * 
 	 * @param s0  initial state
 	 * @param h   heuristic 
@@ -80,49 +118,267 @@ public class EightPuzzle
 	 */
 	public static String AStar(State s0, Heuristic h)
 	{
-		// Initialize the two lists used by the algorithm. 
-		OrderedStateList OPEN = new OrderedStateList(h, true); 
-		OrderedStateList CLOSE = new OrderedStateList(h, false);
-
-		OPEN.addState(s0); 
+		return search(s0, h).solution(); 
+	}
+	
+	
+	
+	/**
+	 * The A* search behind AStar().  Besides the solution, the result holds the number of states 
+	 * expanded and generated, the reopenings from CLOSED, the successors dropped as duplicates, 
+	 * the peak sizes of OPEN and CLOSED and the time taken.  It is published to SearchEvents. 
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    the result of the search 
+	 */
+	public static SearchResult search(State s0, Heuristic h)
+	{
+		return search(s0, h, SearchBudget.UNLIMITED); 
+	}
+	
+	
+	
+	/**
+	 * A* search within a budget.  Before each expansion the search is checked against the budget; 
+	 * once it is over a limit or cancelled, it stops and returns a result without a solution that 
+	 * names the limit.  The result then also holds the path to the expanded state with the lowest 
+	 * estimate, the one the search was closest to the goal at, and the cost of the state it was 
+	 * about to expand, which is the lowest on OPEN and so a lower bound on the length of any 
+	 * solution.  The states kept are the nodes of the search's NodeArena, which include those 
+	 * superseded by a cheaper path to their board.  Since an expansion can add several nodes, the 
+	 * number kept may end a few above the limit. 
+	 * 
+	 * @param s0      initial state
+	 * @param h       heuristic 
+	 * @param budget  limits of the search 
+	 * @return        the result of the search 
+	 */
+	public static SearchResult search(State s0, Heuristic h, SearchBudget budget)
+	{
+		long start = System.nanoTime(); 
+		SearchResult.Counters count = new SearchResult.Counters(); 
+		boolean doubleMoves = h.doubleMoves(); 
+		
+		// OPEN and CLOSED are kept in the node arena of this thread. 
+		NodeArena nodes = NodeArena.acquire(); 
+		try {
+			int mismatched0 = State.mismatchedTiles(s0.board), manhattan0 = State.manhattanDistance(s0.board); 
+			int root = nodes.add(s0.board, s0.blank, 0, State.estimate(h, s0.board, mismatched0, manhattan0), 
+					mismatched0, manhattan0, -1, null); 
+			nodes.push(root, nodes.h(root)); 
+			int open = 1, closed = 0; 
+			count.open(open); 
+			Move[] moves = null; 
+			int promising = root;       // expanded node with the lowest estimate 
+			int promisingEstimate = Integer.MAX_VALUE; 
 
-		while (!OPEN.isEmpty()){
-			State s = OPEN.remove(); 
+			int s; 
+			while ((s = nodes.pop()) >= 0){
+				open--; 
+				long board = nodes.board(s); 
 
-			if (s.isGoalState()){
-				return solutionPath(s); 
-			}
+				if (board == State.GOAL){
+					moves = nodes.path(s); 
+					break; 
+				}
 
-			CLOSED.addState(s); 
+				SearchBudget.Limit limit = budget.check(start, count.expanded, nodes.size()); 
+				if (limit != null){
+					return SearchEvents.publish(new SearchResult("A*", s0, h, count, System.nanoTime() - start, 
+							limit, nodes.path(promising), nodes.g(s) + nodes.h(s))); 
+				}
 
-			for (Move move: Move.values()){
-				try {
-					State t = s.successorState(move);
-					
-					if (t == null) continue; 
+				nodes.close(s); 
+				closed++; 
+				count.expanded++; 
+				int estimate = nodes.h(s); 
+				if (estimate < promisingEstimate){
+					promising = s; 
+					promisingEstimate = estimate; 
+				}
 
-					State tOpen = OPEN.findState(t); 
-					State tClosed = CLOSED.findState(t); 
+				int blank = nodes.blank(s); 
+				int g = nodes.g(s) + 1; 
+				int mismatched = nodes.mismatched(s), manhattan = nodes.manhattan(s); 
+				for (Move move: MoveTable.legalMoves(blank, doubleMoves)){
+					long t = MoveTable.apply(board, blank, move); 
+					count.generated++; 
 
-					if (tOpen == null && tClosed == null){
-						OPEN.addState(t); 
-					} else if (tOpen != null && t.cost() < tOpen.cost()){
-						OPEN.removeState(tOpen); 
-						OPEN.addState(t); 
-					} else if (tClosed != null && t.cost() < tClosed.cost()){
-						CLOSED.removeState(tClosed); 
-						OPEN.addState(t); 
-					} 
-				} catch (IllegalArguementException e){
-					// TODO: Just go to the next move
+					int known = nodes.find(t); 
+					if (known >= 0 && g >= nodes.g(known)){
+						count.duplicates++; 
+						continue; 
+					}
+					if (known < 0){
+						open++; 
+					} else if (nodes.closed(known)){
+						closed--; 
+						open++; 
+						count.reopened++; 
+					}
+					// the heuristic values of the successor follow from those of s by the change 
+					// for the tiles that slide 
+					int tMismatched = State.mismatchedAfter(board, blank, move, mismatched); 
+					int tManhattan = State.manhattanAfter(board, blank, move, manhattan); 
+					int tEstimate = State.estimate(h, t, tMismatched, tManhattan); 
+					int n = nodes.add(t, MoveTable.blankAfter(blank, move), g, tEstimate, tMismatched, tManhattan, 
+							s, move); 
+					nodes.push(n, g + tEstimate); 
 				}
+				count.open(open); 
+				count.closed(closed); 
 			}
-		}
-					 
 			
-		
-		return "No solution found"; 
-						
+			return SearchEvents.publish(
+					new SearchResult("A*", s0, h, moves, count, System.nanoTime() - start)); 
+		} finally {
+			nodes.release(); 
+		}
+	}
+	
+	
+	
+	/**
+	 * This method solves the 8-puzzle with the IDA* algorithm.  It takes the same input and returns 
+	 * the same solution string as AStar(), but only keeps the current path in memory instead of 
+	 * the OPEN and CLOSED lists. See IterativeDeepeningSearch. 
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    solution string 
+	 */
+	public static String IDAStar(State s0, Heuristic h)
+	{
+		return new IterativeDeepeningSearch(s0, h).search().solution(); 
+	}
+	
+	
+	
+	/**
+	 * This method solves the 8-puzzle with bidirectional A*, searching from the initial state and 
+	 * from the goal at the same time until the two searches meet.  It takes the same input and 
+	 * returns the same solution string as AStar().  See BidirectionalSearch. 
+	 * 
+	 * This method is experimental: it expands fewer states than AStar() with TileMismatch only, 
+	 * and 1.3 to 2 times as many with every other heuristic. 
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    solution string 
+	 */
+	public static String BidirectionalAStar(State s0, Heuristic h)
+	{
+		return new BidirectionalSearch(s0, h).search().solution(); 
+	}
+	
+	
+	
+	/**
+	 * This method solves the 8-puzzle with hash-distributed A*, one search spread over several 
+	 * threads that each own a share of the boards.  It takes the same input and returns the same 
+	 * solution string as AStar().  See ParallelSearch. 
+	 * 
+	 * It has not been shown to be faster than AStar(): on a single processor it is slower with 
+	 * any number of threads, and it has not been measured on more. 
+	 * 
+	 * @param s0       initial state
+	 * @param h        heuristic 
+	 * @param threads  number of threads 
+	 * @return         solution string 
+	 */
+	public static String ParallelAStar(State s0, Heuristic h, int threads)
+	{
+		return new ParallelSearch(s0, h, threads).search().solution(); 
+	}
+	
+	
+	
+	/**
+	 * This method solves the 8-puzzle with weighted A*, which orders OPEN by g + w * h.  The 
+	 * solution it returns, in the format of AStar(), is at most w times as long as an optimal one. 
+	 * See WeightedSearch. 
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @param w   weight of the estimate, at least 1 
+	 * @return    solution string 
+	 */
+	public static String WeightedAStar(State s0, Heuristic h, double w)
+	{
+		return new WeightedSearch(s0, h, w).search().solution(); 
+	}
+	
+	
+	
+	/**
+	 * This method solves the 8-puzzle with ARA*: weighted A* with weight w first, then with lower 
+	 * weights for as long as the time allows, each search improving on the solution of the one 
+	 * before.  It returns the last solution found, in the format of AStar().  See WeightedSearch. 
+	 * 
+	 * @param s0      initial state
+	 * @param h       heuristic 
+	 * @param w       weight of the first search, at least 1 
+	 * @param millis  time allowed; the first solution is returned even if it takes longer 
+	 * @return        solution string 
+	 */
+	public static String AnytimeAStar(State s0, Heuristic h, double w, long millis)
+	{
+		return new WeightedSearch(s0, h, w).anytime(millis * 1_000_000, null).solution(); 
+	}
+	
+	
+	
+	/**
+	 * This method solves the 8-puzzle with SMA*, keeping at most capacity nodes in memory.  It 
+	 * returns the same solution string as AStar() whenever a shortest solution has fewer than 
+	 * capacity moves, and otherwise reports that no solution fits.  See MemoryBoundedSearch. 
+	 * 
+	 * @param s0        initial state
+	 * @param h         heuristic 
+	 * @param capacity  most nodes kept at once 
+	 * @return          solution string 
+	 */
+	public static String MemoryBoundedAStar(State s0, Heuristic h, int capacity)
+	{
+		return new MemoryBoundedSearch(s0, h, capacity).search().solution(); 
+	}
+	
+	
+	
+	/**
+	 * @param goal 
+	 * @return the moves on the path from the initial state to goal, in order 
+	 */
+	static Move[] solutionMoves(State goal)
+	{
+		Move[] moves = new Move[goal.numMoves]; 
+		for (State s = goal; s.predecessor != null; s = s.predecessor){
+			moves[s.numMoves - 1] = s.move; 
+		}
+		return moves; 
+	}
+	
+	
+	
+	/**
+	 * Returns the solution string for a path given as the moves from s0, for engines that find a 
+	 * solution as a list of moves rather than a chain of states.  See writeSolution(). 
+	 * 
+	 * @param s0     initial state
+	 * @param h      heuristic to report 
+	 * @param moves  legal moves leading from s0 to the goal 
+	 * @return       solution string 
+	 */
+	static String solutionPath(State s0, Heuristic h, Move[] moves)
+	{
+		StringBuilder path = new StringBuilder(solutionLength(moves.length)); 
+		try {
+			writeSolution(s0.board, s0.blank, h, moves, path); 
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);   // a StringBuilder does not throw 
+		}
+		return path.toString(); 
 	}
 	
 	
@@ -136,35 +392,133 @@ public class EightPuzzle
 	 * 
 	 * See Section 6 in the projection description for an example. 
 	 * 
-	 * Call the toString() method of the State class. 
-	 * 
 	 * -------------------Implementation Details----------------
-	 * Use a StringBuilder to construct solution path 
-	 * We start from the goal state and follow the predecessor links back to the initial state 
-	 * We insert each stae and its move at the beginning of the path string (basically reversing the order)
-	 * We count the number of moves 
-	 * We add the move count and heuristic information at the beginning of the string. 
+	 * Walk the predecessor links back once, filling an array of moves sized by the number of 
+	 * moves of the goal state, so the moves come out in forward order 
+	 * Then write the path forward from the initial state with writeSolution(), into a 
+	 * StringBuilder sized for the whole string, so no character is copied twice 
 	 * 
 	 * @param goal
 	 * @return
 	 */
-	private static String solutionPath(State goal)
+	static String solutionPath(State goal)
 	{
-		StringBuilder path = new StringBuilder(); 
-		State current = goal; 
-		int moves = 0; 
-
-		while (current.predecessor != null){
-			path.insert(0, "\n\n" + current.toString() + "\n" + current.move); 
-			current = current.predecessor; 
-			moves ++; 
+		State root = goal; 
+		while (root.predecessor != null){
+			root = root.predecessor; 
 		}
-
-		path.insert(0, current.toString()); 
-
-		path.insert(0, moves + "moves in total (heuristic: )" + State.heu + ")\n\n"); 
+		return solutionPath(root, goal.heu, solutionMoves(goal)); 
+	}
+	
+	
+	
+	/**
+	 * Writes a solution in the format of solutionPath(): 
+	 * 
+	 * 			n moves in total (heuristic: h) 
+	 * 
+	 * 			initial board 
+	 * 
+	 * 			first move 
+	 * 
+	 * 			board after the first move 
+	 * 
+	 * and so on down to the goal.  The boards are computed from the packed board as the moves are 
+	 * written, so no State is created. 
+	 * 
+	 * @param board  packed initial board
+	 * @param blank  cell of the empty tile on it 
+	 * @param h      heuristic to report 
+	 * @param moves  legal moves leading from the board to the goal 
+	 * @param out 
+	 * @throws IOException if out does 
+	 */
+	public static void writeSolution(long board, int blank, Heuristic h, Move[] moves, Appendable out) 
+			throws IOException
+	{
+		writeSolution(h.name(), moves, new SolutionBoard() {
+			long b = board; 
+			int e = blank; 
+			
+			@Override
+			public void write(Appendable o) throws IOException
+			{
+				State.writeBoard(b, o); 
+			}
+			
+			@Override
+			public void apply(Move m)
+			{
+				b = MoveTable.apply(b, e, m); 
+				e = MoveTable.blankAfter(e, m); 
+			}
+		}, out); 
+	}
+	
+	
+	
+	/**
+	 * A board being walked along a solution by writeSolution(String, Move[], SolutionBoard, Appendable), 
+	 * so that puzzles of other sizes print their solutions in the same format. 
+	 */
+	interface SolutionBoard
+	{
+		/** Writes the board, without a trailing line break */
+		void write(Appendable out) throws IOException; 
 		
-		return path.toString(); 
+		/** Makes a legal move on the board */
+		void apply(Move m); 
+	}
+	
+	
+	
+	/**
+	 * Writes a solution in the format of solutionPath(), with the heuristic reported by name and 
+	 * the boards written by board as the moves are made on it. 
+	 * 
+	 * @param heuristic  name of the heuristic 
+	 * @param moves      legal moves leading from the board to the goal 
+	 * @param board      initial board; the moves are made on it 
+	 * @param out 
+	 * @throws IOException if out does 
+	 */
+	static void writeSolution(String heuristic, Move[] moves, SolutionBoard board, Appendable out) 
+			throws IOException
+	{
+		out.append(Integer.toString(moves.length)).append(" moves in total (heuristic: ")
+				.append(heuristic).append(")\n\n"); 
+		board.write(out); 
+		
+		for (Move m : moves){
+			board.apply(m); 
+			out.append(MOVE_TEXT[m.ordinal()]); 
+			board.write(out); 
+		}
+	}
+	
+	
+	
+	/**
+	 * Writes the moves of a solution in the compact format, one letter per move: L, R, U or D 
+	 * for a single move (the direction the tile travels) and l, r, u or d for a double move. 
+	 * 
+	 * @param moves 
+	 * @param out 
+	 * @throws IOException if out does 
+	 */
+	public static void writeMoves(Move[] moves, Appendable out) throws IOException
+	{
+		for (Move m : moves){
+			out.append(m.code()); 
+		}
+	}
+	
+	
+	
+	/* Enough capacity for the solution string of a path of the given number of moves */
+	private static int solutionLength(int moves)
+	{
+		return 64 + (moves + 1) * State.BOARD_LENGTH + moves * 13; 
 	}
 	
 	
@@ -3,10 +3,23 @@ package edu.iastate.cs472.proj1;
 
 /**
  * 
- * Three heuristics used in solving the 8-puzzle. 
+ * Heuristics used in solving the 8-puzzle.  The first three are the ones solve8Puzzle() reports; 
+ * the next two look up exact distances in the PatternDatabase, for single moves only and for 
+ * single and double moves respectively.  The last two are admissible estimates for single moves 
+ * that are stronger than the Manhattan distance but need no database: the Manhattan distance 
+ * plus linear conflicts (see LinearConflict), and the walking distance (see WalkingDistance). 
  *
  */
 public enum Heuristic 
 {
-	TileMismatch, ManhattanDist, DoubleMoveHeuristic
+	TileMismatch, ManhattanDist, DoubleMoveHeuristic, PatternDatabase, DoubleMovePatternDatabase, 
+	LinearConflict, WalkingDistance; 
+
+	/**
+	 * @return true if the search using this heuristic allows double moves as well as single ones 
+	 */
+	public boolean doubleMoves()
+	{
+		return this == DoubleMoveHeuristic || this == DoubleMovePatternDatabase; 
+	}
 }
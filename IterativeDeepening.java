@@ -0,0 +1,173 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * The IDA* loop shared by IterativeDeepeningSearch for the 8-puzzle and SlidingPuzzleSearch for
+ * N x N puzzles.  Depth-first searches are repeated with a growing bound on the cost f = g + h,
+ * each bound being the smallest cost that exceeded the previous one, until the goal is reached.
+ *
+ * A subclass holds a single board that the search walks in place: it puts the board back to the
+ * initial one, gives the cost of the current board and the legal moves from it, and applies and
+ * takes back a move.  The search never tries the move that undoes the one just made, and only
+ * keeps the moves on the current path.
+ *
+ * Each run of deepen() starts again from the initial board with new counters, so a search can be
+ * run any number of times, one run at a time.  In the counters, expanded and generated count the
+ * boards of all iterations of a run together, and duplicates counts the moves skipped for undoing
+ * the previous one.
+ *
+ * A run is checked against its SearchBudget before every expansion, the states it keeps being
+ * those on the current path; a run with SearchBudget.UNLIMITED skips the check.  A run stopped by the budget leaves the limit in limit, the moves to
+ * the board of lowest estimate it expanded in partial, and the bound of its last iteration, below
+ * which no solution exists, in lowerBound.
+ *
+ */
+abstract class IterativeDeepening
+{
+	private static final int FOUND = -1;
+	private static final int STOPPED = -2;
+
+	private Move[] path = new Move[64];   // moves from the initial board to the current one
+	private int depth = 0;
+
+	private SearchBudget budget;
+	private long begin;
+	private int promising;                // lowest estimate of a board expanded in the run
+
+	SearchResult.Counters count = new SearchResult.Counters();   // those of the current or last run
+	SearchBudget.Limit limit;             // the limit the last run ran into, null if none
+	Move[] partial;                       // if stopped, the moves to the most promising board
+	int lowerBound;                       // if stopped, least number of moves of a solution
+
+	/** Puts the current board back to the initial one */
+	abstract void reset();
+
+	/** @return g + h of the current board */
+	abstract int cost();
+
+	/** @return whether the current board is the goal */
+	abstract boolean isGoal();
+
+	/** @return the legal moves from the current board */
+	abstract Move[] moves();
+
+	/** Makes a move from the current board */
+	abstract void apply(Move m);
+
+	/** Takes back m, the last move made */
+	abstract void undo(Move m);
+
+	/**
+	 * Runs IDA* from the initial board, which must be able to reach the goal.
+	 *
+	 * @param budget  limits of the run
+	 * @param begin   System.nanoTime() when the run started
+	 * @return the moves of the first solution found, the current board being left at the goal;
+	 *         null if the run was stopped by its budget
+	 */
+	final Move[] deepen(SearchBudget budget, long begin)
+	{
+		reset();
+		depth = 0;
+		count = new SearchResult.Counters();
+		this.budget = budget;
+		this.begin = begin;
+		limit = null;
+		partial = new Move[0];
+		promising = Integer.MAX_VALUE;
+
+		int bound = cost();
+		while (true) {
+			int next = search(bound, null);
+			if (next == FOUND) {
+				return Arrays.copyOf(path, depth);
+			}
+			if (next == STOPPED) {
+				lowerBound = bound;
+				return null;
+			}
+			bound = next;
+		}
+	}
+
+	/**
+	 * Depth-first search below the current board within the cost bound.
+	 *
+	 * @param bound
+	 * @param last  the move that produced the board, null at the start
+	 * @return FOUND if the goal was reached, leaving its path in path[0..depth), STOPPED if the
+	 *         budget ran out, otherwise the smallest cost above the bound seen in the search
+	 */
+	private int search(int bound, Move last)
+	{
+		int f = cost();
+		if (f > bound) {
+			return f;
+		}
+		if (isGoal()) {
+			return FOUND;
+		}
+		if (budget != SearchBudget.UNLIMITED && stop(f)) {
+			return STOPPED;
+		}
+
+		Move undo = last == null ? null : last.inverse();
+		Move[] moves = moves();
+		int skipped = undo == null ? 0 : 1;     // the move that undoes the last one is always legal
+		count.expanded++;
+		count.generated += moves.length - skipped;
+		count.duplicates += skipped;
+
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < moves.length; i++) {
+			Move m = moves[i];
+			if (m == undo) {
+				continue;
+			}
+			if (depth == path.length) {
+				path = Arrays.copyOf(path, 2 * depth);
+			}
+			path[depth++] = m;
+			apply(m);
+
+			int t = search(bound, m);
+			if (t == FOUND || t == STOPPED) {
+				uncount(moves, i + 1, undo);
+				return t;
+			}
+
+			undo(m);
+			depth--;
+			min = Math.min(min, t);
+		}
+		return min;
+	}
+
+	/*
+	 * Checks the run against its budget before the current board, of cost f, is expanded, and
+	 * remembers the path to it if its estimate is the lowest so far.  Returns true to stop.
+	 */
+	private boolean stop(int f)
+	{
+		if (f - depth < promising) {
+			promising = f - depth;
+			partial = Arrays.copyOf(path, depth);
+		}
+		limit = budget.check(begin, count.expanded, depth);
+		return limit != null;
+	}
+
+	/* Takes back the counts of moves[from..], which were counted before the search returned */
+	private void uncount(Move[] moves, int from, Move undo)
+	{
+		for (int i = from; i < moves.length; i++) {
+			if (moves[i] == undo) {
+				count.duplicates--;
+			} else {
+				count.generated--;
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * IDA* search for the 8-puzzle.  Depth-first searches are repeated with a growing bound on the
+ * cost f = g + h, each bound being the smallest cost that exceeded the previous one, until the
+ * goal is reached.  With an admissible heuristic the first solution found is optimal.
+ *
+ * The search walks a single State, applying each move in place and taking it back on the way up,
+ * and never tries the move that undoes the one just made; the loop is IterativeDeepening, shared
+ * with SlidingPuzzleSearch.  Apart from that state it only keeps the moves on the current path, so
+ * memory is proportional to the solution depth.  The solution is the list of those moves, and its
+ * boards are only computed when it is printed, by EightPuzzle.writeSolution().
+ *
+ * Each search() starts again from the initial state with new counters, so an instance can search
+ * any number of times, one search at a time.
+ *
+ * In the SearchResult, expanded and generated count the states of all iterations together, and
+ * duplicates counts the moves skipped for undoing the previous one.  There is no OPEN or CLOSED.
+ *
+ */
+public class IterativeDeepeningSearch extends IterativeDeepening
+{
+	private final State start;
+	private State node;              // the single state walked by the search
+	private final Heuristic heu;
+
+	/**
+	 * @param s0  initial state; it is not modified
+	 * @param h   heuristic
+	 */
+	public IterativeDeepeningSearch(State s0, Heuristic h)
+	{
+		start = s0;
+		heu = h;
+	}
+
+	/**
+	 * Runs the search.
+	 *
+	 * @return the solution string produced by EightPuzzle.solutionPath(), or "No solution found"
+	 *         if the initial state cannot reach the goal
+	 */
+	public String solve()
+	{
+		return search().solution();
+	}
+
+	/**
+	 * Runs the search, and publishes its result to SearchEvents.
+	 *
+	 * @return the result, without a solution if the initial state cannot reach the goal
+	 */
+	public SearchResult search()
+	{
+		return search(SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs the search within a budget, checked before every expansion as in
+	 * EightPuzzle.search(State, Heuristic, SearchBudget), and publishes its result to SearchEvents.
+	 * The states kept are those on the current path.  A stopped result gives the bound of the
+	 * last iteration as the lower bound on the length of a solution.
+	 *
+	 * @param budget  limits of the search
+	 * @return the result, without a solution if the initial state cannot reach the goal or the
+	 *         search was stopped by its budget
+	 */
+	public SearchResult search(SearchBudget budget)
+	{
+		long begin = System.nanoTime();
+		if (!start.solvable()) {
+			return SearchEvents.publish(
+					new SearchResult("IDA*", start, heu, null, count, System.nanoTime() - begin));
+		}
+		Move[] moves = deepen(budget, begin);
+		if (moves == null) {
+			return SearchEvents.publish(new SearchResult("IDA*", start, heu, count, System.nanoTime() - begin,
+					limit, partial, lowerBound));
+		}
+		return SearchEvents.publish(
+				new SearchResult("IDA*", start, heu, moves, count, System.nanoTime() - begin));
+	}
+
+	@Override
+	void reset()
+	{
+		node = start.startFor(heu);
+	}
+
+	@Override
+	int cost()
+	{
+		return node.cost();
+	}
+
+	@Override
+	boolean isGoal()
+	{
+		return node.isGoalState();
+	}
+
+	@Override
+	Move[] moves()
+	{
+		return MoveTable.legalMoves(node.blank, heu.doubleMoves());
+	}
+
+	@Override
+	void apply(Move m)
+	{
+		node.applyMove(m);
+	}
+
+	@Override
+	void undo(Move m)
+	{
+		node.undoMove(m);
+	}
+}
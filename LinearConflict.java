@@ -0,0 +1,93 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * The linear conflict term added to the Manhattan distance by Heuristic.LinearConflict.
+ *
+ * Two tiles are in linear conflict when both are in the row (or column) that holds their goal
+ * cells, but in the opposite order to their goal cells.  Their Manhattan distances count no move
+ * out of that line, yet one of them has to leave the line to let the other pass, and come back:
+ * two more moves than the Manhattan distance accounts for.  In each line, the tiles that stay in
+ * it can keep their order only if it is already right among them, so at least as many tiles as
+ * the goal line has tiles minus the longest run of them in goal order must leave.  Each row and
+ * each column adds two moves for every such tile.  A move out of a row is a move within a column,
+ * which the column's term does not count, so the terms add up and the sum with the Manhattan
+ * distance stays admissible.
+ *
+ * ---- Implementation Details ----
+ *
+ * The term of a line depends only on its three tiles, so it is precomputed for every content of
+ * every row and every column, indexed by the three tiles as nibbles in order; a row is then read
+ * straight out of the packed board.
+ *
+ */
+public class LinearConflict
+{
+	private static final byte[][] ROW = new byte[3][1 << 12];    // term of row r by its tiles
+	private static final byte[][] COLUMN = new byte[3][1 << 12]; // term of column c by its tiles
+
+	static {
+		int[] goalCell = new int[9];
+		for (int cell = 0; cell < 9; cell++) {
+			goalCell[State.tileAt(State.GOAL, cell)] = cell;
+		}
+
+		for (int line = 0; line < 3; line++) {
+			for (int tiles = 0; tiles < 1 << 12; tiles++) {
+				int[] rowOrder = new int[3], columnOrder = new int[3];   // goal positions in order
+				int rowCount = 0, columnCount = 0;
+				for (int i = 0; i < 3; i++) {
+					int tile = (tiles >>> ((2 - i) << 2)) & 0xF;
+					if (tile == 0 || tile > 8) {
+						continue;
+					}
+					if (goalCell[tile] / 3 == line) {
+						rowOrder[rowCount++] = goalCell[tile] % 3;
+					}
+					if (goalCell[tile] % 3 == line) {
+						columnOrder[columnCount++] = goalCell[tile] / 3;
+					}
+				}
+				ROW[line][tiles] = (byte) (2 * (rowCount - longestIncreasing(rowOrder, rowCount)));
+				COLUMN[line][tiles] = (byte) (2 * (columnCount - longestIncreasing(columnOrder, columnCount)));
+			}
+		}
+	}
+
+	/**
+	 * @param board packed board
+	 * @return the number of moves the linear conflicts of board add to its Manhattan distance
+	 */
+	public static int conflicts(long board)
+	{
+		return ROW[0][(int) (board >>> State.shift(2)) & 0xFFF]
+				+ ROW[1][(int) (board >>> State.shift(5)) & 0xFFF]
+				+ ROW[2][(int) (board >>> State.shift(8)) & 0xFFF]
+				+ COLUMN[0][column(board, 0)]
+				+ COLUMN[1][column(board, 1)]
+				+ COLUMN[2][column(board, 2)];
+	}
+
+	/* The tiles of a column as three nibbles, top first */
+	private static int column(long board, int col)
+	{
+		return State.tileAt(board, col) << 8 | State.tileAt(board, col + 3) << 4 | State.tileAt(board, col + 6);
+	}
+
+	/* Length of the longest strictly increasing subsequence of the first n values, n <= 3 */
+	private static int longestIncreasing(int[] values, int n)
+	{
+		int[] longest = new int[n];   // ending at each value
+		int best = 0;
+		for (int i = 0; i < n; i++) {
+			longest[i] = 1;
+			for (int j = 0; j < i; j++) {
+				if (values[j] < values[i]) {
+					longest[i] = Math.max(longest[i], longest[j] + 1);
+				}
+			}
+			best = Math.max(best, longest[i]);
+		}
+		return best;
+	}
+}
@@ -0,0 +1,363 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ *
+ * Simplified memory-bounded A* (SMA*, Russell, "Efficient Memory-Bounded Search Methods") for the
+ * 8-puzzle.  The search keeps at most a fixed number of nodes in memory.  Like A* it grows a
+ * search tree from the initial state, generating one successor at a time from the leaf of lowest
+ * cost, the deepest one if there are several.  When the tree has reached its capacity, the leaf of
+ * highest cost, the shallowest one, is forgotten to make room, and its parent remembers its cost.
+ * A node whose successors have all been generated takes the lowest cost among them, remembered
+ * ones included, and passes any change on to its ancestors; a node whose children were all
+ * forgotten is a leaf again and will regenerate the best of them when its turn comes.
+ *
+ * A path through the tree has at most capacity nodes, so a node that is not the goal gets an
+ * infinite cost at that depth, or as soon as its cost shows that no solution through it can fit.  Within that limit the search is optimal: it finds a shortest
+ * solution whenever one has at most capacity - 1 moves.  With less memory it forgets and
+ * regenerates more, and the time this takes is not bounded by anything but the number of paths of
+ * at most capacity - 1 moves: with capacity close to the length of the solution, or when no
+ * solution fits, it can grow exponentially with that length.  Once every path has been cut off,
+ * the search returns a result stopped by the MEMORY limit of SearchBudget, with capacity as the
+ * lower bound on the length of a solution; a search that must answer in time should be given a
+ * SearchBudget as well.
+ *
+ * ---- Implementation Details ----
+ *
+ * The tree holds nodes rather than States, each with its children by move, the remembered costs
+ * of its forgotten children, and the State it stands for, whose predecessors give the solution
+ * path.  Costs use pathmax: a child costs no less than its parent.  The search is a tree search;
+ * a successor that repeats a board on its own path back to the root is never generated.
+ *
+ * The same board may still be reached on several paths.  A ClosedList remembers the fewest moves
+ * with which each board has been generated, and a successor with more moves than that gets an
+ * infinite cost, as no shortest solution goes through it; regenerating a forgotten node, with the
+ * same number of moves, is not affected.  Boards on a shortest solution are always reached with
+ * the fewest moves, so the search stays optimal.  The table covers every board, takes a fixed
+ * 1.45 MB and is not counted in the capacity, which bounds the tree.
+ *
+ * The queue holds the nodes that can generate a successor, and every leaf, in a TreeSet ordered
+ * by cost and then by decreasing depth, so its first node is the next one to extend and the last
+ * leaf is the next one to forget.  In the SearchResult, expanded counts the successors generated
+ * from a queued node, reopened those of them that had been forgotten before, duplicates those cut
+ * off for having more moves than the board was reached with before, peak OPEN the queue and peak
+ * CLOSED the nodes in the tree.
+ *
+ */
+public class MemoryBoundedSearch
+{
+	private static final int INFINITE = Integer.MAX_VALUE;
+
+	private final State start;
+	private final Heuristic heu;
+	private final int capacity;
+
+	private final TreeSet<Node> queue = new TreeSet<>(
+			Comparator.comparingInt((Node n) -> n.f).thenComparingInt(n -> -n.depth).thenComparingLong(n -> n.id));
+	private int used = 0;                    // nodes in the tree
+	private long nextId = 0;
+	private ClosedList fewest;               // fewest moves each board was generated with
+
+	private SearchResult.Counters count = new SearchResult.Counters();
+
+	/**
+	 * @param s0        initial state; it is not modified
+	 * @param h         heuristic
+	 * @param capacity  most nodes to keep at once, at least 2
+	 * @throws IllegalArgumentException if capacity is less than 2
+	 */
+	public MemoryBoundedSearch(State s0, Heuristic h, int capacity) throws IllegalArgumentException
+	{
+		if (capacity < 2) {
+			throw new IllegalArgumentException("The search needs room for at least two nodes");
+		}
+		start = s0;
+		heu = h;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Runs the search.
+	 *
+	 * @return the solution string produced by EightPuzzle.solutionPath(), "No solution found" if
+	 *         the initial state cannot reach the goal, or "No solution found: memory limit
+	 *         reached" if no solution fits in the capacity
+	 */
+	public String solve()
+	{
+		return search().solution();
+	}
+
+	/**
+	 * Runs the search, and publishes its result to SearchEvents.
+	 *
+	 * @return the result; stopped by the MEMORY limit if no solution fits in the capacity
+	 */
+	public SearchResult search()
+	{
+		return search(SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs the search within a budget, checked before every expansion as in
+	 * EightPuzzle.search(State, Heuristic, SearchBudget), and publishes its result to SearchEvents.
+	 * The states kept are the nodes in the tree, never more than the capacity.  Each search starts
+	 * again from the initial state with new counters.
+	 *
+	 * @param budget  limits of the search
+	 * @return the result, without a solution if the initial state cannot reach the goal, the
+	 *         search was stopped by its budget, or no solution fits in the capacity, which stops it
+	 *         by the MEMORY limit
+	 */
+	public SearchResult search(SearchBudget budget)
+	{
+		long begin = System.nanoTime();
+		queue.clear();
+		used = 0;
+		count = new SearchResult.Counters();
+		if (!start.solvable()) {
+			return SearchEvents.publish(
+					new SearchResult("SMA*", start, heu, null, count, System.nanoTime() - begin));
+		}
+
+		fewest = ClosedList.acquire();
+		try {
+			Node root = new Node(start.startFor(heu), null, -1);
+			root.f = root.state.cost();
+			fewest.addState(root.state);
+			add(root);
+
+			Node promising = root;                  // node of lowest estimate extended so far
+
+			while (true) {
+				Node n = queue.first();
+				if (n.f == INFINITE) {                    // no solution has fewer than capacity moves
+					return SearchEvents.publish(new SearchResult("SMA*", start, heu, count, System.nanoTime() - begin,
+							SearchBudget.Limit.MEMORY, EightPuzzle.solutionMoves(promising.state),
+							Math.max(capacity, root.state.cost())));
+				}
+				if (n.state.isGoalState()) {
+					return SearchEvents.publish(new SearchResult("SMA*", start, heu,
+							EightPuzzle.solutionMoves(n.state), count, System.nanoTime() - begin));
+				}
+				if (n.estimate() < promising.estimate()) {
+					promising = n;
+				}
+				SearchBudget.Limit limit = budget.check(begin, count.expanded, used);
+				if (limit != null) {                      // no solution of fewer than capacity moves costs less than n
+					return SearchEvents.publish(new SearchResult("SMA*", start, heu, count, System.nanoTime() - begin,
+							limit, EightPuzzle.solutionMoves(promising.state),
+							Math.max(Math.min(n.f, capacity), root.state.cost())));
+				}
+
+				extend(n);
+			}
+		} finally {
+			fewest.release();
+		}
+	}
+
+	/* Generates the next successor of n, making room for it, and updates the costs and the queue */
+	private void extend(Node n)
+	{
+		int i = nextSuccessor(n);
+		count.expanded++;
+		if (n.generated(i)) {
+			count.reopened++;
+		}
+		Node s = new Node(n.state.successorState(n.moves[i]), n, i);
+		count.generated++;
+		if (!s.state.isGoalState() && (s.state.cost() >= capacity || s.depth >= capacity - 1 || s.completed())) {
+			s.f = INFINITE;                      // no solution through it fits, or every move repeats a board
+		} else if (!fewest(s.state)) {
+			s.f = INFINITE;                      // the board was reached with fewer moves
+			count.duplicates++;
+		} else {
+			s.f = Math.max(n.f, s.state.cost());
+		}
+
+		queue.remove(n);
+		while (used >= capacity) {
+			forget(worstLeaf(n));
+		}
+		n.child[i] = s;
+		n.forgotten[i] = INFINITE;
+		n.generatedMask |= 1 << i;
+		n.inMemory++;
+		add(s);
+
+		if (n.completed()) {
+			backup(n);
+		}
+		queue.remove(n);                         // forget() may have queued it as a leaf
+		if (n.needsQueue()) {
+			queue.add(n);
+		}
+		count.open(queue.size());
+		count.closed(used);
+	}
+
+	/* Records the moves of s for its board; false if the board was generated with fewer before */
+	private boolean fewest(State s)
+	{
+		int moves = fewest.numMoves(s);
+		if (moves >= 0 && moves <= s.numMoves) {
+			return moves == s.numMoves;
+		}
+		if (moves >= 0) {
+			fewest.removeState(s);
+		}
+		fewest.addState(s);
+		return true;
+	}
+
+	/* Index of the successor n generates next: a new one, else the best forgotten one */
+	private int nextSuccessor(Node n)
+	{
+		int best = -1;
+		for (int i = 0; i < n.moves.length; i++) {
+			if (n.child[i] != null) {
+				continue;
+			}
+			if (!n.generated(i)) {
+				return i;
+			}
+			if (n.forgotten[i] != INFINITE && (best < 0 || n.forgotten[i] < n.forgotten[best])) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/* The leaf of highest cost on the queue, the shallowest if there are several, other than n */
+	private Node worstLeaf(Node n)
+	{
+		for (Iterator<Node> it = queue.descendingIterator(); it.hasNext(); ) {
+			Node leaf = it.next();
+			if (leaf != n && leaf.inMemory == 0 && leaf.parent != null) {
+				return leaf;
+			}
+		}
+		throw new IllegalStateException("No leaf to forget");
+	}
+
+	/* Drops a leaf from the tree; its parent remembers its cost and may become a leaf again */
+	private void forget(Node leaf)
+	{
+		queue.remove(leaf);
+		used--;
+		Node parent = leaf.parent;
+		boolean queued = queue.remove(parent);
+		parent.child[leaf.index] = null;
+		parent.forgotten[leaf.index] = leaf.f;
+		parent.inMemory--;
+		if (parent.completed()) {
+			backup(parent);
+		}
+		if (queued || parent.needsQueue()) {
+			queue.add(parent);
+		}
+	}
+
+	/* Sets the cost of a completed node to the lowest cost among its children, and so up the tree */
+	private void backup(Node n)
+	{
+		while (n != null && n.completed()) {
+			int f = INFINITE;
+			for (int i = 0; i < n.moves.length; i++) {
+				f = Math.min(f, n.child[i] != null ? n.child[i].f : n.forgotten[i]);
+			}
+			if (f == n.f) {
+				return;
+			}
+			boolean queued = queue.remove(n);
+			n.f = f;
+			if (queued) {
+				queue.add(n);
+			}
+			n = n.parent;
+		}
+	}
+
+	private void add(Node n)
+	{
+		used++;
+		queue.add(n);
+	}
+
+	/**
+	 * A node of the search tree.  Moves that would repeat a board of the path back to the root
+	 * count as generated and forgotten at an infinite cost.
+	 */
+	private final class Node
+	{
+		final State state;
+		final Node parent;
+		final int index;               // index of this node among the children of its parent
+		final int depth;
+		final long id = nextId++;
+		final Move[] moves;
+		final Node[] child;            // child by index of its move, null if not in memory
+		final int[] forgotten;         // cost of each forgotten child, INFINITE if none
+		int generatedMask;             // bit i set once child i has been generated
+		int inMemory;                  // number of children in memory
+		int f;
+
+		Node(State state, Node parent, int index)
+		{
+			this.state = state;
+			this.parent = parent;
+			this.index = index;
+			this.depth = state.numMoves;
+			this.moves = MoveTable.legalMoves(state.blank, heu.doubleMoves());
+			this.child = new Node[moves.length];
+			this.forgotten = new int[moves.length];
+			for (int i = 0; i < moves.length; i++) {
+				forgotten[i] = INFINITE;
+				if (repeats(moves[i])) {
+					generatedMask |= 1 << i;
+				}
+			}
+		}
+
+		/* Whether move m leads back to a board of the path to the root */
+		private boolean repeats(Move m)
+		{
+			if (parent == null) {
+				return false;
+			}
+			long board = MoveTable.apply(state.board, state.blank, m);
+			for (Node a = parent; a != null; a = a.parent) {
+				if (a.state.board == board) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean generated(int i)
+		{
+			return (generatedMask & 1 << i) != 0;
+		}
+
+		/* Whether every successor has been generated at least once */
+		boolean completed()
+		{
+			return generatedMask == (1 << moves.length) - 1;
+		}
+
+		/* Whether the node belongs on the queue: it is a leaf, or has a successor to regenerate */
+		boolean needsQueue()
+		{
+			return inMemory == 0 || nextSuccessor(this) >= 0;
+		}
+
+		int estimate()
+		{
+			return state.cost() - state.numMoves;
+		}
+	}
+}
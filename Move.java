@@ -7,5 +7,55 @@ package edu.iastate.cs472.proj1;
  */
 public enum Move 
 {
-	LEFT, RIGHT, UP, DOWN,  DBL_LEFT, DBL_RIGHT, DBL_UP, DBL_DOWN
+	LEFT, RIGHT, UP, DOWN,  DBL_LEFT, DBL_RIGHT, DBL_UP, DBL_DOWN; 
+
+	/**
+	 * @return the letter of the move in the compact format: L, R, U or D after the direction the 
+	 *         tile travels, lower case for a double move 
+	 */
+	public char code()
+	{
+		switch (this) {
+			case LEFT:      return 'L'; 
+			case RIGHT:     return 'R'; 
+			case UP:        return 'U'; 
+			case DOWN:      return 'D'; 
+			case DBL_LEFT:  return 'l'; 
+			case DBL_RIGHT: return 'r'; 
+			case DBL_UP:    return 'u'; 
+			default:        return 'd'; 
+		}
+	}
+
+	/**
+	 * @param code a letter written by code() 
+	 * @return the move it stands for 
+	 * @throws IllegalArgumentException if no move has that letter 
+	 */
+	public static Move fromCode(char code) throws IllegalArgumentException
+	{
+		for (Move m : values()){
+			if (m.code() == code){
+				return m; 
+			}
+		}
+		throw new IllegalArgumentException("No move " + code); 
+	}
+
+	/**
+	 * @return the move that undoes this one 
+	 */
+	public Move inverse()
+	{
+		switch (this) {
+			case LEFT:      return RIGHT; 
+			case RIGHT:     return LEFT; 
+			case UP:        return DOWN; 
+			case DOWN:      return UP; 
+			case DBL_LEFT:  return DBL_RIGHT; 
+			case DBL_RIGHT: return DBL_LEFT; 
+			case DBL_UP:    return DBL_DOWN; 
+			default:        return DBL_UP; 
+		}
+	}
 }
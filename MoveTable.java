@@ -0,0 +1,117 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Precomputed move tables indexed by the cell (row * 3 + column) of the empty tile.  For each
+ * position of the empty tile they list the legal moves, so a search can generate exactly the
+ * valid successors of a state without trying every Move and catching the illegal ones, and they
+ * give the cells of the tiles that each move slides into the empty cell.
+ *
+ * A move is named after the direction the tiles travel: LEFT slides the tile to the right of the
+ * empty cell one cell left, so the empty cell moves right.  A double move slides the two tiles
+ * next to the empty cell in a row or column at once, which is the same as two single moves in the
+ * same direction, so it is applied as two slides: first the nearer tile, then the farther one.
+ *
+ */
+public class MoveTable
+{
+	private static final Move[] MOVES = Move.values();
+	private static final int[] NONE = {};
+
+	private static final Move[][] SINGLE = new Move[9][];      // legal single moves by empty cell
+	private static final Move[][] ALL = new Move[9][];         // legal single and double moves
+	private static final int[][][] SOURCES = new int[9][MOVES.length][];  // cells of the sliding
+	                                                                      // tiles, empty if illegal
+
+	static {
+		for (int blank = 0; blank < 9; blank++) {
+			int row = blank / 3, col = blank % 3;
+			for (Move m : MOVES) {
+				int[] from;
+				switch (m) {
+					case LEFT:      from = col < 2 ? new int[]{blank + 1} : NONE; break;
+					case RIGHT:     from = col > 0 ? new int[]{blank - 1} : NONE; break;
+					case UP:        from = row < 2 ? new int[]{blank + 3} : NONE; break;
+					case DOWN:      from = row > 0 ? new int[]{blank - 3} : NONE; break;
+					case DBL_LEFT:  from = col == 0 ? new int[]{blank + 1, blank + 2} : NONE; break;
+					case DBL_RIGHT: from = col == 2 ? new int[]{blank - 1, blank - 2} : NONE; break;
+					case DBL_UP:    from = row == 0 ? new int[]{blank + 3, blank + 6} : NONE; break;
+					case DBL_DOWN:  from = row == 2 ? new int[]{blank - 3, blank - 6} : NONE; break;
+					default:        from = NONE;
+				}
+				SOURCES[blank][m.ordinal()] = from;
+			}
+			SINGLE[blank] = legal(blank, false);
+			ALL[blank] = legal(blank, true);
+		}
+	}
+
+	/**
+	 * Returns the legal moves, in the order of Move.values(), when the empty tile is at the given
+	 * cell.  The array is shared and must not be modified.
+	 *
+	 * @param blank        cell of the empty tile
+	 * @param doubleMoves  whether double moves are allowed
+	 * @return the legal moves
+	 */
+	public static Move[] legalMoves(int blank, boolean doubleMoves)
+	{
+		return doubleMoves ? ALL[blank] : SINGLE[blank];
+	}
+
+	/**
+	 * Returns the cells of the tiles that m slides into the empty cell, in the order they slide.
+	 * The array is shared and must not be modified.
+	 *
+	 * @param blank cell of the empty tile
+	 * @param m
+	 * @return the cells, an empty array if m is illegal
+	 */
+	public static int[] sources(int blank, Move m)
+	{
+		return SOURCES[blank][m.ordinal()];
+	}
+
+	/**
+	 * @param board packed board
+	 * @param blank cell of the empty tile on the board
+	 * @param m     a legal move
+	 * @return the packed board after m
+	 */
+	public static long apply(long board, int blank, Move m)
+	{
+		for (int from : SOURCES[blank][m.ordinal()]) {
+			long tile = State.tileAt(board, from);
+			board = (board & ~(0xFL << State.shift(from))) | (tile << State.shift(blank));
+			blank = from;
+		}
+		return board;
+	}
+
+	/**
+	 * @param blank cell of the empty tile
+	 * @param m     a legal move
+	 * @return the cell of the empty tile after m
+	 */
+	public static int blankAfter(int blank, Move m)
+	{
+		int[] from = SOURCES[blank][m.ordinal()];
+		return from[from.length - 1];
+	}
+
+	/* Collects the moves with at least one sliding tile, double moves only if asked for */
+	private static Move[] legal(int blank, boolean doubleMoves)
+	{
+		int count = 0;
+		Move[] legal = new Move[MOVES.length];
+		for (Move m : MOVES) {
+			int n = SOURCES[blank][m.ordinal()].length;
+			if (n == 1 || (n == 2 && doubleMoves)) {
+				legal[count++] = m;
+			}
+		}
+		return Arrays.copyOf(legal, count);
+	}
+}
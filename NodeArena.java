@@ -0,0 +1,226 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Search nodes stored as parallel primitive arrays and addressed by int handles, for the A* of
+ * EightPuzzle.search().  A node is its packed board, the cell of its empty tile, its number of
+ * moves g, its estimate h with the number of mismatched tiles and the Manhattan distance it is
+ * derived from, the handle of its parent, the ordinal of the move from the parent, a closed flag
+ * and the handle of the next node in its bucket of OPEN: about 26 bytes, against a State object
+ * with its header, references and cached heuristic values.  The arrays grow by doubling and are
+ * kept from one search to the next, so a search that fits in the arrays of the one before
+ * allocates nothing for its nodes.
+ *
+ * Each thread has an arena of its own, taken with acquire() and given back with release().  A
+ * search that starts while its thread's arena is in use, from a SearchListener say, gets a new one.
+ * An arena given back with more than POOLED_CAPACITY nodes of room is cut back to that, so a
+ * thread does not hold on to the memory of its largest search for good.
+ *
+ * ---- Implementation Details ----
+ *
+ * OPEN is a bucket queue by cost g + h, each bucket a stack linked through the next array, like
+ * the bucketed OrderedStateList: a node pushed onto a bucket goes before the nodes of equal cost,
+ * so both hand out nodes in the same order.  A board is never updated in place; a cheaper path to
+ * it adds a new node and the old one is left in its bucket, skipped when it comes up.
+ *
+ * The handle of the latest node of each board is kept in a table indexed by the rank of the board
+ * (PermutationRank), which is not cleared between searches.  An entry is current if its handle is
+ * below the number of nodes and that node has the board, since every node added sets the entry of
+ * its board; so a stale entry left by an earlier search is never mistaken for a current one.
+ *
+ */
+final class NodeArena
+{
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	private static final int POOLED_CAPACITY = 1 << 17;    // most nodes of room kept between searches
+	private static final Move[] MOVES = Move.values();
+
+	private static final ThreadLocal<NodeArena> POOL = ThreadLocal.withInitial(NodeArena::new);
+
+	private long[] board = new long[INITIAL_CAPACITY];
+	private byte[] blank = new byte[INITIAL_CAPACITY];
+	private int[] g = new int[INITIAL_CAPACITY];
+	private byte[] h = new byte[INITIAL_CAPACITY];
+	private byte[] mismatched = new byte[INITIAL_CAPACITY];
+	private byte[] manhattan = new byte[INITIAL_CAPACITY];
+	private int[] parent = new int[INITIAL_CAPACITY];
+	private byte[] move = new byte[INITIAL_CAPACITY];
+	private boolean[] closed = new boolean[INITIAL_CAPACITY];
+	private int[] next = new int[INITIAL_CAPACITY];
+	private int size;
+
+	private final int[] latest = new int[PermutationRank.SIZE];   // latest node by rank of board
+
+	private int[] buckets = new int[64];    // first node of each bucket of OPEN, -1 if none
+	private int minBucket;
+	private boolean inUse;
+
+	private NodeArena()
+	{
+	}
+
+	/**
+	 * @return an empty arena for a search on this thread; release() it when the search is done
+	 */
+	static NodeArena acquire()
+	{
+		NodeArena arena = POOL.get();
+		if (arena.inUse) {
+			arena = new NodeArena();
+		}
+		arena.inUse = true;
+		arena.size = 0;
+		Arrays.fill(arena.buckets, -1);
+		arena.minBucket = 0;
+		return arena;
+	}
+
+	/**
+	 * Gives the arena back to its thread, cut back to POOLED_CAPACITY nodes if it has grown past
+	 * that.  Handles into it are no longer valid.
+	 */
+	void release()
+	{
+		inUse = false;
+		if (board.length > POOLED_CAPACITY) {
+			resize(POOLED_CAPACITY);
+		}
+	}
+
+	/**
+	 * @return number of nodes added since the arena was acquired
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Adds a node on no list.
+	 *
+	 * @param b       packed board
+	 * @param empty   cell of its empty tile
+	 * @param moves   number of moves from the initial state
+	 * @param est     estimate of the heuristic of the search for the board
+	 * @param mis     number of mismatched tiles on the board
+	 * @param man     Manhattan distance of the board
+	 * @param from    handle of the parent, -1 for the initial state
+	 * @param m       move from the parent, null for the initial state
+	 * @return the handle of the node, which becomes the latest of its board
+	 */
+	int add(long b, int empty, int moves, int est, int mis, int man, int from, Move m)
+	{
+		if (size == board.length) {
+			resize(2 * board.length);
+		}
+		int n = size++;
+		board[n] = b;
+		blank[n] = (byte) empty;
+		g[n] = moves;
+		h[n] = (byte) est;
+		mismatched[n] = (byte) mis;
+		manhattan[n] = (byte) man;
+		parent[n] = from;
+		move[n] = (byte) (m == null ? -1 : m.ordinal());
+		closed[n] = false;
+		next[n] = -1;
+		latest[PermutationRank.rank(b)] = n;
+		return n;
+	}
+
+	/**
+	 * @param b packed board
+	 * @return the latest node with board b, -1 if there is none
+	 */
+	int find(long b)
+	{
+		int n = latest[PermutationRank.rank(b)];
+		return n < size && board[n] == b ? n : -1;
+	}
+
+	long board(int n)          { return board[n]; }
+
+	int blank(int n)           { return blank[n]; }
+
+	int g(int n)               { return g[n]; }
+
+	int h(int n)               { return h[n] & 0xFF; }    // 255 from the databases for no path
+
+	int mismatched(int n)      { return mismatched[n]; }
+
+	int manhattan(int n)       { return manhattan[n]; }
+
+	boolean closed(int n)      { return closed[n]; }
+
+	void close(int n)          { closed[n] = true; }
+
+	/**
+	 * Pushes a node onto OPEN, before the nodes of equal cost.
+	 *
+	 * @param n     handle
+	 * @param cost  g + h of the node
+	 */
+	void push(int n, int cost)
+	{
+		if (cost >= buckets.length) {
+			int length = buckets.length;
+			buckets = Arrays.copyOf(buckets, Math.max(2 * length, cost + 1));
+			Arrays.fill(buckets, length, buckets.length, -1);
+		}
+		next[n] = buckets[cost];
+		buckets[cost] = n;
+		minBucket = Math.min(minBucket, cost);
+	}
+
+	/**
+	 * Removes a node of lowest cost from OPEN, skipping nodes superseded by a cheaper path to their
+	 * board.
+	 *
+	 * @return its handle, -1 if OPEN holds no current node
+	 */
+	int pop()
+	{
+		while (minBucket < buckets.length) {
+			int n = buckets[minBucket];
+			if (n < 0) {
+				minBucket++;
+				continue;
+			}
+			buckets[minBucket] = next[n];
+			if (latest[PermutationRank.rank(board[n])] == n) {
+				return n;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param n handle
+	 * @return the moves on the path from the initial state to node n, in order
+	 */
+	Move[] path(int n)
+	{
+		Move[] moves = new Move[g[n]];
+		for (int i = g[n]; i > 0; n = parent[n]) {
+			moves[--i] = MOVES[move[n]];
+		}
+		return moves;
+	}
+
+	/* Sets the room of the arrays to capacity nodes, which must be at least size */
+	private void resize(int capacity)
+	{
+		board = Arrays.copyOf(board, capacity);
+		blank = Arrays.copyOf(blank, capacity);
+		g = Arrays.copyOf(g, capacity);
+		h = Arrays.copyOf(h, capacity);
+		mismatched = Arrays.copyOf(mismatched, capacity);
+		manhattan = Arrays.copyOf(manhattan, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		move = Arrays.copyOf(move, capacity);
+		closed = Arrays.copyOf(closed, capacity);
+		next = Arrays.copyOf(next, capacity);
+	}
+}
@@ -1,6 +1,6 @@
 package edu.iastate.cs472.proj1;
 
-import java.awt.Taskbar.State;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -17,6 +17,14 @@ import java.util.NoSuchElementException;
  *     a) order of non-decreasing cost estimate for the state if the list is OPEN, or 
  *     b) lexicographic order of the state if the list is CLOSED.  
  * 
+ * An OPEN list may instead be constructed as a bucket queue.  Since costs are small non-negative 
+ * integers, it keeps one circular list per cost value, each with its own dummy head, and a cursor 
+ * on the lowest bucket that may be non-empty.  addState() then pushes s to the front of its bucket 
+ * and remove() pops the front of the lowest non-empty one, both in constant time, and together with 
+ * the constant-time removeState() this gives a constant-time decrease-key.  Pushing to the front 
+ * places s before the states of equal cost, exactly where the sorted list puts it, so both kinds 
+ * of OPEN list hand out states in the same order. 
+ * 
  */
 public class OrderedStateList 
 {
@@ -27,31 +35,71 @@ public class OrderedStateList
 	  private State head;           // dummy node as the head of the sorted linked list 
 	  private int size = 0;
 	  
+	  private StateIndex index = new StateIndex();  // board -> state for every state on the list
+	  
 	  private boolean isOPEN;       // true if this OrderedStateList object is the list OPEN and false 
 	                                // if the list CLOSED.
 
+	  private static final StateComparator LEXICOGRAPHIC = new StateComparator(); 
+
+	  private State[] buckets;      // dummy heads of the per-cost lists if this is a bucketed OPEN 
+	                                // list, null otherwise
+	  private int minBucket;        // no bucket below this index holds a state
+
 	  /**
-	   *  Default constructor constructs an empty list. Initialize heuristic. Set the fields next and 
-	   *  previous of head to the node itself. Initialize instance variables size and heuristic. 
+	   *  Default constructor constructs an empty list. Set the fields next and previous of head to 
+	   *  the node itself. Initialize instance variable size. 
 	   * 
 	   * ------------------Implementation Details---------------------------------
 	   * 
-	   * Initialize the heuristic for all State objects 
+	   * The list needs no heuristic: every State carries the heuristic of its own search 
+	   * (State.heu), so lists of different searches can be used from different threads at once. 
 	   * Create a dummy head node for a circular doubly linked list (previous and next pointers to itself)
 	   * set isOpen flag based on the parameter given 
 	   * 
-	   * @param h 
 	   * @param isOpen   
 	   */
-	  public OrderedStateList(Heuristic h, boolean isOpen)
+	  public OrderedStateList(boolean isOpen)
 	  {
-		  State.heu = h;   // initialize heuristic used for evaluating all State objects. 
-
 		  //creating dummy head node 
-		  head = new State(new int[][]{{0,0,0}, {0,0,0}, {0,0,0}}); 
+		  head = new State(); 
 		  head.next = head; 
 		  head.previous = head; 
 
+		  isOPEN = isOpen; 
+
+	  }
+
+	  /**
+	   *  Constructs an empty list.  The heuristic is not used: the states added carry their own. 
+	   * 
+	   * @param h 
+	   * @param isOpen   
+	   * @deprecated use OrderedStateList(boolean) 
+	   */
+	  @Deprecated
+	  public OrderedStateList(Heuristic h, boolean isOpen)
+	  {
+		  this(isOpen); 
+	  }
+
+	  /**
+	   *  Constructs an empty list, which for OPEN may be a bucket queue indexed by cost rather than 
+	   *  a single sorted list. 
+	   * 
+	   * @param isOpen   
+	   * @param bucketed  true to keep OPEN as a bucket queue; ignored for CLOSED 
+	   */
+	  public OrderedStateList(boolean isOpen, boolean bucketed)
+	  {
+		  this(isOpen); 
+
+		  if (isOpen && bucketed){
+			buckets = new State[32]; 
+			for (int i = 0; i < buckets.length; i++){
+				buckets[i] = newHead(); 
+			}
+		  }
 	  }
 
 	  /**
@@ -80,10 +128,16 @@ public class OrderedStateList
 	   */
 	  public void addState(State s)
 	  {
-		  State current = head.next; 
+		  State current; 
+
+		  if (buckets != null){
+			current = bucketOf(s.cost()).next; 
+		  } else {
+			current = head.next; 
 
-		  while (current != head && compareStates(s, current) > 0){
-			current = current.next;
+			while (current != head && compareStates(s, current) > 0){
+				current = current.next;
+			}
 		  }
 
 		  //insert s before current 
@@ -92,18 +146,18 @@ public class OrderedStateList
 		  current.previous.next = s; 
 		  current.previous = s; 
 
+		  index.put(s); 
 		  size++; 
 	  }
 	  
 	  
 	  /**
-	   * Conduct a sequential search on the list for a state that has the same board configuration 
-	   * as the argument state s.  
+	   * Look up the state on the list that has the same board configuration as the argument 
+	   * state s.  
 	   * 
-	   * Calls equals() from the State class. 
 	   * -------------- Implementation Details -----------------
-	   * Perform sequential search through the list 
-	   * Use the equals method of the state class to compare states 
+	   * Look up the packed board of s in the hash index kept alongside the list, which takes 
+	   * expected constant time instead of a sequential search 
 	   * 
 	   * @param s
 	   * @return the state on the list if found
@@ -111,15 +165,7 @@ public class OrderedStateList
 	   */
 	  public State findState(State s)
 	  {
-		  State current = head.next; 
-		  while (current != head){
-			if (current.equals(s)){
-				return current;
-			}
-			current = current.next; 
-		  }
-
-		  return null; 
+		  return index.get(s.board); 
 	  }
 	  
 	  
@@ -128,7 +174,7 @@ public class OrderedStateList
 	   * both the OPEN and CLOSED lists. 
 	   * 
 	   * ------------- Implementation Details -------------------
-	   * Search for the state in the list 
+	   * Check through the hash index that s itself is on the list 
 	   * If found, we remove it by adjusting the pointers of surrounding nodes 
 	   * If not found, we through IllegalStateExeption 
 	   * 
@@ -137,19 +183,14 @@ public class OrderedStateList
 	   */
 	  public void removeState(State s) throws IllegalStateException
 	  {
-		  State current = head.next; 
-
-		  while (current != head){
-			if (current == s){
-				current.previous.next = current.next; 
-				current.next.previous = current.previous; 
-				size--; 
-				return;
-			}
-			current = current.next; 
+		  if (index.get(s.board) != s){
+			throw new IllegalStateException("State not found in the list"); 
 		  }
 
-		  throw new IllegalStateException("State not found in the list"); 
+		  s.previous.next = s.next; 
+		  s.next.previous = s.previous; 
+		  index.remove(s.board); 
+		  size--; 
 	  }
 	  
 	  
@@ -169,9 +210,19 @@ public class OrderedStateList
 			throw new NoSuchElementException("List is empty");
 		}
 
-		State first = head.next; 
-		head.next = first.next; 
-		first.next.previous = head; 
+		State first; 
+
+		if (buckets != null){
+			while (buckets[minBucket].next == buckets[minBucket]){
+				minBucket++; 
+			}
+			first = buckets[minBucket].next; 
+		} else {
+			first = head.next; 
+		}
+		first.previous.next = first.next; 
+		first.next.previous = first.previous; 
+		index.remove(first.board); 
 		size--; 
 
 		return first;
@@ -183,11 +234,11 @@ public class OrderedStateList
 	   * or the list CLOSE used by the A* algorithm.  More specifically,  
 	   * 
 	   *     a) call the method compareTo() of the State if isOPEN == true, or 
-	   *     b) create a StateComparator object to call its compare() method if isOPEN == false. 
+	   *     b) call the compare() method of a shared StateComparator if isOPEN == false. 
 	   * 
 	   * --------------- Implementation Details---------------------
 	   * For the OPEN list, use the compareTo method of the State Class 
-	   * For the CLOSED list, use the compare method of a StateComparator Object 
+	   * For the CLOSED list, use the compare method of the StateComparator held in LEXICOGRAPHIC 
 	   * 
 	   * @param s1
 	   * @param s2
@@ -200,10 +251,43 @@ public class OrderedStateList
 		  if (isOPEN){
 			return s1.compareTo(s2); 
 		  } else {
-			return new StateComparator().compare(s1, s2); 
+			return LEXICOGRAPHIC.compare(s1, s2); 
 		  }
 	  }
 
+	  /**
+	   * Returns the dummy head of the bucket holding states of the given cost, growing the bucket 
+	   * array if needed and lowering minBucket if the bucket lies below it. 
+	   * 
+	   * @param cost
+	   * @return dummy head of the bucket 
+	   */
+	  private State bucketOf(int cost)
+	  {
+		  if (cost >= buckets.length){
+			int oldLength = buckets.length; 
+			buckets = Arrays.copyOf(buckets, Math.max(2 * oldLength, cost + 1)); 
+			for (int i = oldLength; i < buckets.length; i++){
+				buckets[i] = newHead(); 
+			}
+		  }
+		  if (cost < minBucket){
+			minBucket = cost; 
+		  }
+		  return buckets[cost]; 
+	  }
+
+	  /**
+	   * @return a dummy head node whose fields next and previous point to the node itself 
+	   */
+	  private static State newHead()
+	  {
+		  State h = new State(); 
+		  h.next = h; 
+		  h.previous = h; 
+		  return h; 
+	  }
+
 	  /**
 	   * Checks if the list is empty 
 	   * @return : true if the list is empty, false otherwise 
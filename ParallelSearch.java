@@ -0,0 +1,448 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * Hash-distributed A* (HDA*): one A* search of the 8-puzzle spread over several threads.  Every
+ * board is owned by one thread, chosen from a scrambled rank of the board, and only its owner keeps
+ * it on an OPEN or CLOSED list.  A thread repeatedly expands the cheapest state of its own OPEN list; the
+ * successors it owns go onto its lists as in EightPuzzle.search(), and the others are sent to
+ * their owners, which apply the same duplicate checks when they receive them.  With the boards
+ * spread evenly, the threads share the expansions with no lock around any list.
+ *
+ * The first solution found need not be optimal, since each thread only expands its own cheapest
+ * state.  The cheapest solution so far is kept as an incumbent, and a state whose cost is no less
+ * than the incumbent's is dropped wherever it is met.  The search ends when every thread has run
+ * out of states and no state is on its way between two threads; every state cheaper than the
+ * incumbent has then been expanded, so with an admissible heuristic the incumbent is optimal.
+ *
+ * ---- Implementation Details ----
+ *
+ * States are sent in batches: each thread fills one outgoing array per owner and hands it over
+ * when it is full, every FLUSH expansions, and before the thread goes idle.  A mailbox is a
+ * ConcurrentLinkedQueue of batches, so handing one over is a single lock-free enqueue, and it also
+ * publishes the states, which the receiver then owns.
+ *
+ * Termination is detected with a single counter: the number of active threads plus the number of
+ * batches sent but not yet received.  A thread increments it for each batch it sends, and
+ * decrements it when it goes idle and for each batch it receives, but an idle thread counts itself
+ * active again before it takes a batch.  The counter therefore only reaches 0 once no thread holds
+ * a state and none is in a mailbox, and it cannot leave 0 again.  At the end every OPEN list and
+ * mailbox is checked to be empty, which is what makes the incumbent optimal.  An idle thread parks
+ * until a batch is sent to it, so idle threads leave the processors to the busy ones.
+ *
+ * Only the owner of the goal board ever sees a goal state, so the incumbent has a single writer.
+ *
+ * No speedup over EightPuzzle.search() has been measured.  ParallelSearchBenchmark has only been
+ * run on a single processor.  On the depth-28 puzzles, one thread takes about three times as long
+ * as EightPuzzle.search(): 15.0 against 5.4 ms with ManhattanDist, and 8.1 against 2.7 ms with
+ * LinearConflict.  With 2, 4 and 8 threads it is 12 to 175 times slower still, because the
+ * threads take turns on the processor and each batch waits for its receiver's turn.  Until a run
+ * on several processors shows otherwise, EightPuzzle.search() is the faster choice.
+ *
+ * A thread owns one share of the boards as ClosedList splits them, so its ClosedList only needs an
+ * entry for every board of that share.  Each search() starts a new set of threads, so an instance
+ * can search any number of times, one search at a time.
+ *
+ * The counters of the SearchResult add up those of the threads; the peak sizes add up the peaks
+ * of the threads, which need not have occurred at the same time.
+ *
+ * Within a SearchBudget, each thread adds its expansions and the states on its lists to shared
+ * totals every FLUSH expansions and checks them against the budget then, so a search may go up to
+ * FLUSH expansions per thread over a limit.  The first thread to find a limit reached sets done,
+ * which stops them all.  A stopped result leads to the incumbent if there is one, else to the
+ * expanded state of lowest estimate, and its lower bound is the lowest cost of a state left on an
+ * OPEN list or between two threads.
+ *
+ */
+public class ParallelSearch
+{
+	private static final int BATCH = 64;      // states per batch
+	private static final int FLUSH = 16;      // expansions between flushes of partial batches
+	private static final long PARK_NANOS = 1_000_000;   // longest wait of an idle thread
+
+	private final State start;
+	private final Heuristic heu;
+	private final int threadCount;
+	private Worker[] workers;                           // those of the current or last search
+	private Thread[] threads;
+
+	private final AtomicLong work = new AtomicLong();   // active threads + batches in transit
+	private volatile boolean done;
+	private volatile int best = Integer.MAX_VALUE;      // number of moves of the incumbent
+	private volatile State goal;                        // the incumbent, reached as a goal state
+	private volatile Throwable failure;
+
+	private SearchBudget budget;                        // those of the current or last search
+	private long begin;
+	private final AtomicLong expanded = new AtomicLong();      // by all threads, as last added up
+	private final AtomicInteger retained = new AtomicInteger();
+	private volatile SearchBudget.Limit limit;          // the limit reached, null if none
+
+	/**
+	 * @param s0       initial state; it is not modified
+	 * @param h        heuristic
+	 * @param threads  number of threads to search with
+	 * @throws IllegalArgumentException if threads is less than 1
+	 */
+	public ParallelSearch(State s0, Heuristic h, int threads) throws IllegalArgumentException
+	{
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		start = s0;
+		heu = h;
+		threadCount = threads;
+	}
+
+	/**
+	 * Runs the search.
+	 *
+	 * @return the solution string produced by EightPuzzle.solutionPath(), or "No solution found"
+	 *         if the initial state cannot reach the goal
+	 */
+	public String solve()
+	{
+		return search().solution();
+	}
+
+	/**
+	 * Runs the search, and publishes its result to SearchEvents.
+	 *
+	 * @return the result, without a solution if the initial state cannot reach the goal
+	 * @throws IllegalStateException if a thread of the search fails
+	 */
+	public SearchResult search() throws IllegalStateException
+	{
+		return search(SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs the search within a budget, and publishes its result to SearchEvents.  The threads
+	 * check the budget every FLUSH expansions each.
+	 *
+	 * @param budget  limits of the search
+	 * @return the result, without a solution if the initial state cannot reach the goal or the
+	 *         search was stopped by its budget
+	 * @throws IllegalStateException if a thread of the search fails
+	 */
+	public SearchResult search(SearchBudget budget) throws IllegalStateException
+	{
+		long begin = System.nanoTime();
+		Move[] moves = null;
+		SearchResult.Counters count = new SearchResult.Counters();
+		if (start.solvable()) {
+			run(budget, begin);
+			moves = goal == null ? null : EightPuzzle.solutionMoves(goal);
+			for (Worker w : workers) {
+				count.expanded += w.count.expanded;
+				count.generated += w.count.generated;
+				count.reopened += w.count.reopened;
+				count.duplicates += w.count.duplicates;
+				count.peakOpen += w.count.peakOpen;
+				count.peakClosed += w.count.peakClosed;
+			}
+			if (limit != null) {
+				return SearchEvents.publish(new SearchResult("HDA*", start, heu, count, System.nanoTime() - begin,
+						limit, moves != null ? moves : promising(), lowestCost()));
+			}
+		}
+		return SearchEvents.publish(
+				new SearchResult("HDA*", start, heu, moves, count, System.nanoTime() - begin));
+	}
+
+	/* Starts new threads from the initial state and waits for them to finish */
+	private void run(SearchBudget budget, long begin) throws IllegalStateException
+	{
+		done = false;
+		best = Integer.MAX_VALUE;
+		goal = null;
+		failure = null;
+		this.budget = budget;
+		this.begin = begin;
+		expanded.set(0);
+		retained.set(0);
+		limit = null;
+		workers = new Worker[threadCount];
+		threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			workers[i] = new Worker(i);
+			threads[i] = new Thread(workers[i], "HDA*-" + i);
+			threads[i].setDaemon(true);
+		}
+
+		State root = start.startFor(heu);
+		workers[owner(root.board)].insert(root);
+		work.set(workers.length);
+
+		for (Thread t : threads) {
+			t.start();
+		}
+		try {
+			for (Thread t : threads) {
+				t.join();
+			}
+		} catch (InterruptedException e) {
+			finish();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", e);
+		}
+
+		if (failure != null) {
+			throw new IllegalStateException("Search failed", failure);
+		}
+		if (limit != null) {
+			return;
+		}
+		for (Worker w : workers) {
+			if (!w.open.isEmpty() || !w.mailbox.isEmpty()) {
+				throw new IllegalStateException("Search ended with states left to expand");
+			}
+		}
+	}
+
+	/* Stops every thread, waking those that wait for a batch */
+	private void finish()
+	{
+		done = true;
+		for (Thread t : threads) {
+			LockSupport.unpark(t);
+		}
+	}
+
+	/* The moves to the expanded state of lowest estimate, once the threads have finished */
+	private Move[] promising()
+	{
+		State promising = null;
+		int estimate = Integer.MAX_VALUE;
+		for (Worker w : workers) {
+			if (w.promisingEstimate < estimate) {
+				promising = w.promising;
+				estimate = w.promisingEstimate;
+			}
+		}
+		return promising == null ? new Move[0] : EightPuzzle.solutionMoves(promising);
+	}
+
+	/*
+	 * The lowest cost of a state left on an OPEN list or between two threads, or of the incumbent,
+	 * once the threads have finished: a lower bound on the length of a solution
+	 */
+	private int lowestCost()
+	{
+		int lowest = best;
+		for (Worker w : workers) {
+			if (!w.open.isEmpty()) {
+				lowest = Math.min(lowest, w.open.remove().cost());
+			}
+			for (State[] batch : w.mailbox) {
+				for (State t : batch) {
+					lowest = Math.min(lowest, t.cost());
+				}
+			}
+			for (int o = 0; o < workers.length; o++) {
+				for (int i = 0; i < w.outSize[o]; i++) {
+					lowest = Math.min(lowest, w.outbox[o][i].cost());
+				}
+			}
+		}
+		return lowest;
+	}
+
+	/* The thread that owns board */
+	private int owner(long board)
+	{
+		return ClosedList.share(board, workers.length);
+	}
+
+	/**
+	 * One thread of the search, with the OPEN and CLOSED lists of the boards it owns.
+	 */
+	private final class Worker implements Runnable
+	{
+		final OrderedStateList open = new OrderedStateList(true, true);
+		final ClosedList closed;
+		final ConcurrentLinkedQueue<State[]> mailbox = new ConcurrentLinkedQueue<>();
+		final SearchResult.Counters count = new SearchResult.Counters();
+
+		State promising;                       // expanded state of lowest estimate
+		int promisingEstimate = Integer.MAX_VALUE;
+
+		private final int id;
+		private final State[][] outbox;        // states waiting to be sent, by owner
+		private final int[] outSize;
+		private int added;                     // states on the lists, as last added to retained
+		private boolean active = true;
+		private volatile boolean sleeping;    // parked, waiting for a batch
+
+		Worker(int id)
+		{
+			this.id = id;
+			closed = new ClosedList(workers.length, id);
+			outbox = new State[workers.length][BATCH];
+			outSize = new int[workers.length];
+		}
+
+		@Override
+		public void run()
+		{
+			try {
+				while (!done) {
+					receive();
+					if (!open.isEmpty()) {
+						expand(open.remove());
+						if (count.expanded % FLUSH == 0) {
+							flush();
+							checkBudget();
+						}
+					} else {
+						flush();
+						if (!mailbox.isEmpty()) {
+							continue;
+						}
+						if (active) {
+							active = false;
+							if (work.decrementAndGet() == 0) {
+								finish();
+							}
+						} else {
+							sleep();
+						}
+					}
+				}
+			} catch (Throwable t) {
+				failure = t;
+				finish();
+			}
+		}
+
+		/* Waits for a batch, or for the end of the search */
+		private void sleep()
+		{
+			sleeping = true;
+			if (mailbox.isEmpty() && !done) {
+				LockSupport.parkNanos(this, PARK_NANOS);
+			}
+			sleeping = false;
+		}
+
+		/* Takes the batches sent to this thread onto its lists */
+		private void receive()
+		{
+			State[] batch;
+			while ((batch = mailbox.poll()) != null) {
+				if (!active) {
+					active = true;
+					work.incrementAndGet();
+				}
+				for (State t : batch) {
+					insert(t);
+				}
+				work.decrementAndGet();
+			}
+		}
+
+		private void expand(State s)
+		{
+			int cost = s.cost();
+			if (cost >= best) {
+				return;
+			}
+			closed.addState(s);
+			count.expanded++;
+			if (cost - s.numMoves < promisingEstimate) {
+				promising = s;
+				promisingEstimate = cost - s.numMoves;
+			}
+
+			for (Move move : MoveTable.legalMoves(s.blank, heu.doubleMoves())) {
+				State t = s.successorState(move);
+				count.generated++;
+				if (t.cost() >= best) {
+					continue;
+				}
+
+				int o = owner(t.board);
+				if (o == id) {
+					insert(t);
+				} else {
+					outbox[o][outSize[o]++] = t;
+					if (outSize[o] == BATCH) {
+						send(o);
+					}
+				}
+			}
+			count.open(open.size());
+			count.closed(closed.size());
+		}
+
+		/* Adds a state this thread owns to OPEN, unless it is known at no higher cost */
+		void insert(State t)
+		{
+			if (t.cost() >= best) {
+				return;
+			}
+			if (t.isGoalState()) {
+				best = t.numMoves;
+				goal = t;
+				return;
+			}
+
+			State tOpen = open.findState(t);
+			int tClosed = closed.numMoves(t);
+
+			if (tOpen == null && tClosed < 0) {
+				open.addState(t);
+			} else if (tOpen != null && t.cost() < tOpen.cost()) {
+				open.removeState(tOpen);
+				open.addState(t);
+			} else if (tClosed >= 0 && t.numMoves < tClosed) {
+				closed.removeState(t);
+				open.addState(t);
+				count.reopened++;
+			} else {
+				count.duplicates++;
+			}
+		}
+
+		/* Adds the work of this thread since the last check to the totals, and stops the search if
+		   they have reached a limit of the budget */
+		private void checkBudget()
+		{
+			int size = open.size() + closed.size();
+			int total = retained.addAndGet(size - added);
+			added = size;
+			SearchBudget.Limit reached = budget.check(begin, expanded.addAndGet(FLUSH), total);
+			if (reached != null) {
+				limit = reached;
+				finish();
+			}
+		}
+
+		/* Sends the partial batches */
+		private void flush()
+		{
+			for (int o = 0; o < outSize.length; o++) {
+				if (outSize[o] > 0) {
+					send(o);
+				}
+			}
+		}
+
+		private void send(int o)
+		{
+			State[] batch = Arrays.copyOf(outbox[o], outSize[o]);
+			outSize[o] = 0;
+			work.incrementAndGet();
+			workers[o].mailbox.add(batch);
+			if (workers[o].sleeping) {
+				LockSupport.unpark(threads[o]);
+			}
+		}
+	}
+}
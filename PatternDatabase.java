@@ -0,0 +1,175 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *
+ * Exact distances to the goal for every configuration of the 8-puzzle.
+ *
+ * Running main() performs a retrograde breadth-first search from the goal, once with single moves
+ * only and once with single and double moves, and writes both distance tables to a file.  Every
+ * move can be undone by the opposite move, so the distance from the goal to a board is also the
+ * distance from the board to the goal.  The file is laid out as
+ *
+ *     magic "8PDB"       4 bytes
+ *     version            4 bytes
+ *     goal board         8 bytes
+ *     single-move table  9! bytes, indexed by PermutationRank.rank(board)
+ *     double-move table  9! bytes, indexed the same way
+ *
+ * with UNREACHABLE stored for the half of the permutations that cannot reach the goal.
+ *
+ * The heuristics Heuristic.PatternDatabase and Heuristic.DoubleMovePatternDatabase look boards up
+ * in a read-only memory mapping of that file, so loading costs a single mmap() and the tables stay
+ * shared through the page cache by every JVM on the machine.  The file is taken from the system
+ * property "puzzle.pdb", defaulting to DEFAULT_FILE in the working directory.
+ *
+ */
+public class PatternDatabase
+{
+	public static final String DEFAULT_FILE = "8Puzzle.pdb";
+	public static final int UNREACHABLE = 0xFF;
+
+	private static final int MAGIC = 0x38504442;   // "8PDB"
+	private static final int VERSION = 1;
+	private static final int HEADER = 16;
+
+	private static volatile PatternDatabase instance;
+
+	private final ByteBuffer tables;
+
+	private PatternDatabase(ByteBuffer tables)
+	{
+		this.tables = tables;
+	}
+
+	/**
+	 * Returns the database mapped from the configured file, mapping it on first use.
+	 *
+	 * @return the shared database, which may be used from any number of threads
+	 * @throws IllegalStateException if the file is missing or malformed
+	 */
+	public static PatternDatabase get() throws IllegalStateException
+	{
+		PatternDatabase db = instance;
+		if (db == null) {
+			synchronized (PatternDatabase.class) {
+				db = instance;
+				if (db == null) {
+					Path file = Paths.get(System.getProperty("puzzle.pdb", DEFAULT_FILE));
+					try {
+						db = instance = load(file);
+					} catch (IOException e) {
+						throw new IllegalStateException("Cannot read pattern database " + file
+								+ "; generate it with PatternDatabase", e);
+					}
+				}
+			}
+		}
+		return db;
+	}
+
+	/**
+	 * Maps a pattern database file into memory.
+	 *
+	 * @param file
+	 * @return the database
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalStateException if the file is not a pattern database for this goal
+	 */
+	public static PatternDatabase load(Path file) throws IOException, IllegalStateException
+	{
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() != HEADER + 2 * PermutationRank.SIZE
+				|| buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getLong(8) != State.GOAL) {
+			throw new IllegalStateException("Not a pattern database for this goal: " + file);
+		}
+		return new PatternDatabase(buffer);
+	}
+
+	/**
+	 * @param board        packed board
+	 * @param doubleMoves  true for the distance using single and double moves, false for
+	 *                     single moves only
+	 * @return the exact number of moves from board to the goal, or UNREACHABLE
+	 */
+	public int distance(long board, boolean doubleMoves)
+	{
+		int offset = HEADER + (doubleMoves ? PermutationRank.SIZE : 0);
+		return tables.get(offset + PermutationRank.rank(board)) & 0xFF;
+	}
+
+	/**
+	 * Builds both distance tables and writes them to the file named by the first argument, or to
+	 * DEFAULT_FILE if there is none.
+	 *
+	 * @param args
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+
+		ByteBuffer out = ByteBuffer.allocate(HEADER + 2 * PermutationRank.SIZE);
+		out.putInt(MAGIC).putInt(VERSION).putLong(State.GOAL);
+		out.put(distances(false));
+		out.put(distances(true));
+
+		Files.write(file, out.array());
+		System.out.println("Wrote " + file);
+	}
+
+	/**
+	 * Breadth-first search over all boards reachable from the goal.
+	 *
+	 * @param doubleMoves  whether double moves are allowed
+	 * @return distance to the goal indexed by rank, UNREACHABLE where there is none
+	 */
+	static byte[] distances(boolean doubleMoves)
+	{
+		byte[] dist = new byte[PermutationRank.SIZE];
+		Arrays.fill(dist, (byte) UNREACHABLE);
+
+		long[] queue = new long[PermutationRank.SIZE / 2];
+		int head = 0, tail = 0;
+		queue[tail++] = State.GOAL;
+		dist[PermutationRank.rank(State.GOAL)] = 0;
+
+		while (head < tail) {
+			long board = queue[head++];
+			int d = dist[PermutationRank.rank(board)];
+			int blank = blankOf(board);
+
+			for (Move m : MoveTable.legalMoves(blank, doubleMoves)) {
+				long next = MoveTable.apply(board, blank, m);
+				int r = PermutationRank.rank(next);
+				if ((dist[r] & 0xFF) == UNREACHABLE) {
+					dist[r] = (byte) (d + 1);
+					queue[tail++] = next;
+				}
+			}
+		}
+		return dist;
+	}
+
+	private static int blankOf(long board)
+	{
+		int cell = 0;
+		while (State.tileAt(board, cell) != 0) {
+			cell++;
+		}
+		return cell;
+	}
+}
@@ -0,0 +1,61 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * Ranks a packed board, read as a permutation of the tiles 0..8 in row-major order, to a dense
+ * index in [0, 9!) using its Lehmer code.  The rank orders boards lexicographically, like
+ * StateComparator, and serves as a perfect index into tables over the whole state space.  Both
+ * directions run in a fixed number of steps without allocating.
+ *
+ */
+public class PermutationRank
+{
+	/**
+	 * Number of permutations of nine tiles.
+	 */
+	public static final int SIZE = 362880;
+
+	private static final int[] FACTORIAL = {40320, 5040, 720, 120, 24, 6, 2, 1, 1};
+
+	/**
+	 * @param board packed board
+	 * @return the rank of the board in [0, 9!)
+	 */
+	public static int rank(long board)
+	{
+		int rank = 0;
+		int seen = 0;      // bit t is set once tile t has been passed
+		for (int i = 0; i < 8; i++) {
+			int tile = State.tileAt(board, i);
+			// the tiles smaller than this one that are still to come
+			int smaller = tile - Integer.bitCount(seen & ((1 << tile) - 1));
+			rank += smaller * FACTORIAL[i];
+			seen |= 1 << tile;
+		}
+		return rank;
+	}
+
+	/**
+	 * @param rank a rank in [0, 9!)
+	 * @return the packed board with this rank
+	 */
+	public static long unrank(int rank)
+	{
+		long board = 0;
+		int unused = 0x1FF;   // bit t is set while tile t is still to be placed
+		for (int i = 0; i < 9; i++) {
+			int k = rank / FACTORIAL[i];
+			rank %= FACTORIAL[i];
+
+			// the tile is the k-th smallest of the unused ones
+			int candidates = unused;
+			for (int j = 0; j < k; j++) {
+				candidates &= candidates - 1;
+			}
+			int tile = Integer.numberOfTrailingZeros(candidates);
+			unused &= ~(1 << tile);
+			board = (board << 4) | tile;
+		}
+		return board;
+	}
+}
@@ -0,0 +1,247 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ *
+ * A binary file of 8-puzzle boards, read through a read-only memory mapping.  The file is laid
+ * out as
+ *
+ *     magic "8PZC"     4 bytes
+ *     version          4 bytes
+ *     count            8 bytes, number of boards
+ *     boards           4 bytes each, big-endian
+ *
+ * A board is stored as the low 32 bits of its packed form, the tiles of cells 1 to 8.  The tile
+ * of cell 0 is the one missing from them, which is the exclusive or of all nine tiles (8) with the
+ * eight stored ones, so decoding a board is a few shifts and no parsing.  The boards are not
+ * checked when read; new State(board) checks them.
+ *
+ * The text format is that of BatchSolver, one board per line; main() converts between the two.
+ *
+ */
+public class PuzzleCorpus
+{
+	private static final int MAGIC = 0x38505A43;   // "8PZC"
+	private static final int VERSION = 1;
+	private static final int HEADER = 16;
+	private static final int CHUNK = 1 << 28;      // boards per mapping: 1 GB, below the 2 GB limit
+
+	private final IntBuffer[] chunks;
+	private final long count;
+
+	private PuzzleCorpus(IntBuffer[] chunks, long count)
+	{
+		this.chunks = chunks;
+		this.count = count;
+	}
+
+	/**
+	 * Maps a corpus file into memory.
+	 *
+	 * @param file
+	 * @return the corpus
+	 * @throws IOException if the file cannot be read, or is not a corpus
+	 */
+	public static PuzzleCorpus open(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = read(channel, HEADER);
+			if (header.remaining() < HEADER || header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new IOException("Not a puzzle corpus: " + file);
+			}
+			long count = header.getLong();
+			if (count < 0 || HEADER + 4 * count != channel.size()) {
+				throw new IOException("Truncated puzzle corpus: " + file);
+			}
+
+			IntBuffer[] chunks = new IntBuffer[(int) ((count + CHUNK - 1) / CHUNK)];
+			for (int c = 0; c < chunks.length; c++) {
+				long first = (long) c * CHUNK;
+				MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY,
+						HEADER + 4 * first, 4 * Math.min(CHUNK, count - first));
+				chunks[c] = map.asIntBuffer();
+			}
+			return new PuzzleCorpus(chunks, count);
+		}
+	}
+
+	/**
+	 * @param file
+	 * @return true if the file begins like a corpus
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean isCorpus(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer magic = read(channel, 4);
+			return magic.remaining() == 4 && magic.getInt() == MAGIC;
+		}
+	}
+
+	/**
+	 * @return number of boards
+	 */
+	public long size()
+	{
+		return count;
+	}
+
+	/**
+	 * @param i index, 0 to size() - 1
+	 * @return the packed board at index i
+	 */
+	public long board(long i)
+	{
+		return decode(chunks[(int) (i / CHUNK)].get((int) (i % CHUNK)));
+	}
+
+	/**
+	 * Passes every board, in order, to action.
+	 *
+	 * @param action
+	 */
+	public void forEach(LongConsumer action)
+	{
+		for (IntBuffer chunk : chunks) {
+			for (int i = 0, n = chunk.limit(); i < n; i++) {
+				action.accept(decode(chunk.get(i)));
+			}
+		}
+	}
+
+	/* Restores the tile of cell 0 as the one missing from the other eight */
+	static long decode(int stored)
+	{
+		int x = stored ^ stored >>> 16;
+		x ^= x >>> 8;
+		x ^= x >>> 4;
+		return (long) (8 ^ (x & 0xF)) << State.shift(0) | (stored & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Reads boards in the text format and writes them as a corpus.  Blank lines are skipped.
+	 *
+	 * @param in
+	 * @param file the corpus to write
+	 * @return number of boards written
+	 * @throws IOException if reading or writing fails
+	 * @throws IllegalArgumentException if a line does not hold a valid board
+	 */
+	public static long fromText(BufferedReader in, Path file) throws IOException, IllegalArgumentException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			buffer.putInt(MAGIC).putInt(VERSION).putLong(0);   // count filled in at the end
+
+			long count = 0, lineNumber = 0;
+			String line;
+			while ((line = in.readLine()) != null) {
+				lineNumber++;
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				long board;
+				try {
+					board = new State(BatchSolver.parseBoard(line)).board;
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+				}
+				if (!buffer.hasRemaining()) {
+					write(channel, buffer);
+				}
+				buffer.putInt((int) board);
+				count++;
+			}
+			write(channel, buffer);
+
+			buffer.putLong(count).flip();
+			channel.write(buffer, 8);
+			return count;
+		}
+	}
+
+	/**
+	 * Writes every board of the corpus in the text format, one per line.
+	 *
+	 * @param out
+	 * @throws IOException if writing fails
+	 */
+	public void toText(Writer out) throws IOException
+	{
+		char[] line = new char[18];
+		for (int c = 1; c < 17; c += 2) {
+			line[c] = ' ';
+		}
+		line[17] = '\n';
+		for (long i = 0; i < count; i++) {
+			long board = board(i);
+			for (int cell = 0; cell < 9; cell++) {
+				line[2 * cell] = (char) ('0' + State.tileAt(board, cell));
+			}
+			out.write(line);
+		}
+		out.flush();
+	}
+
+	/* Reads up to n bytes from the start of the channel, fewer only at its end */
+	private static ByteBuffer read(FileChannel channel, int n) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(n);
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			// until full or at the end
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Converts between the text and the binary format:
+	 *
+	 *     PuzzleCorpus --to-binary puzzles.txt puzzles.8pz
+	 *     PuzzleCorpus --to-text puzzles.8pz puzzles.txt
+	 *
+	 * @param args
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 3 || !(args[0].equals("--to-binary") || args[0].equals("--to-text"))) {
+			System.err.println("Usage: PuzzleCorpus --to-binary|--to-text input output");
+			System.exit(2);
+		}
+		Path input = Paths.get(args[1]), output = Paths.get(args[2]);
+
+		if (args[0].equals("--to-binary")) {
+			try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.US_ASCII)) {
+				System.out.println("Wrote " + fromText(in, output) + " boards to " + output);
+			}
+		} else {
+			try (Writer out = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+				open(input).toText(out);
+			}
+		}
+	}
+}
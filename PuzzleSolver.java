@@ -1,6 +1,8 @@
 package edu.iastate.cs472.proj1;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  *  
@@ -29,13 +31,36 @@ public class PuzzleSolver
 	 * - Uses the provided fileNames array
 	 * - Iterates through the fileNames array, creates a State object from each file and solve the puzzle 
 	 * - Prints the solution or an error message if the file is not found or has an invalid format 
+	 * - With --batch as the first argument, hands the remaining arguments to BatchSolver, which 
+	 *   streams many puzzles from one file or standard input through a pool of worker threads 
+	 * - With --to-binary or --to-text as the first argument, converts a batch file to or from the 
+	 *   binary PuzzleCorpus format with PuzzleCorpus 
+	 * - With --size n as the first arguments, solves N x N puzzles such as the 15-puzzle with 
+	 *   SlidingPuzzleSearch instead 
+	 * - The solutions come from EightPuzzle.solve8Puzzle(), which runs A*.  Of the other engines 
+	 *   of EightPuzzle, BidirectionalAStar is experimental: it expands more states than A* with 
+	 *   every heuristic but TileMismatch, and is not used here 
 	 * 
 	 * @param args
 	 * @throws FileNotFoundException if the input file does not exist 
+	 * @throws IOException if reading or writing a batch fails 
 	 * @throws IllegalArgumentException if the initial state from the file is not in the correct format
 	 */
-	public static void main(String[] args) throws FileNotFoundException, IllegalArgumentException
+	public static void main(String[] args) throws IOException, IllegalArgumentException
 	{	
+		if (args.length > 0 && args[0].equals("--batch")){
+			BatchSolver.main(Arrays.copyOfRange(args, 1, args.length)); 
+			return; 
+		}
+		if (args.length > 0 && (args[0].equals("--to-binary") || args[0].equals("--to-text"))){
+			PuzzleCorpus.main(args); 
+			return; 
+		}
+		if (args.length > 0 && args[0].equals("--size")){
+			SlidingPuzzleSearch.main(args); 
+			return; 
+		}
+		
 		String fileNames[] = new String[] {"8Puzzle.txt"}; 
 		
 		for (String fileName : fileNames){
@@ -0,0 +1,116 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * Limits on a single search: the time it may take, the number of states it may expand, and the
+ * number of states it may keep on OPEN and CLOSED at once, which bounds its memory.  A search can
+ * also be cancelled from another thread through a Cancellation handed to its budget.
+ *
+ * A search that runs into a limit stops and returns a SearchResult telling which limit it hit,
+ * together with what it had learned so far: the path to the most promising state it expanded and
+ * a lower bound on the length of a solution.  See EightPuzzle.search(State, Heuristic, SearchBudget).
+ *
+ * A budget holds no state of its own, so one budget can serve any number of searches; the time
+ * limit counts from the start of each.
+ *
+ */
+public final class SearchBudget
+{
+	/** No limit at all: the search runs until it finds a solution or runs out of states */
+	public static final SearchBudget UNLIMITED = new SearchBudget(0, 0, 0, null);
+
+	/**
+	 * The limit a search ran into.
+	 */
+	public enum Limit
+	{
+		DEADLINE("time limit reached"),
+		EXPANSIONS("expansion limit reached"),
+		MEMORY("memory limit reached"),
+		CANCELLED("cancelled");
+
+		private final String description;
+
+		Limit(String description)
+		{
+			this.description = description;
+		}
+
+		/** @return the limit in words, such as "time limit reached" */
+		public String description()
+		{
+			return description;
+		}
+	}
+
+	/**
+	 * A flag through which a caller cancels the searches it was handed to.  Searches check it
+	 * before every expansion, so they stop soon after cancel() is called, from any thread.
+	 */
+	public static final class Cancellation
+	{
+		private volatile boolean cancelled;
+
+		/** Asks every search holding this flag to stop */
+		public void cancel()
+		{
+			cancelled = true;
+		}
+
+		/** @return true once cancel() has been called */
+		public boolean isCancelled()
+		{
+			return cancelled;
+		}
+	}
+
+	private final long nanos;
+	private final long maxExpanded;
+	private final int maxRetained;
+	private final Cancellation cancellation;
+
+	/**
+	 * @param nanos         time a search may take, in nanoseconds; 0 for no limit
+	 * @param maxExpanded   number of states a search may expand; 0 for no limit
+	 * @param maxRetained   number of states a search may keep on OPEN and CLOSED together; 0 for
+	 *                      no limit
+	 * @param cancellation  flag to cancel the searches with, or null
+	 * @throws IllegalArgumentException if a limit is negative
+	 */
+	public SearchBudget(long nanos, long maxExpanded, int maxRetained, Cancellation cancellation)
+			throws IllegalArgumentException
+	{
+		if (nanos < 0 || maxExpanded < 0 || maxRetained < 0) {
+			throw new IllegalArgumentException("A limit cannot be negative");
+		}
+		this.nanos = nanos == 0 ? Long.MAX_VALUE : nanos;
+		this.maxExpanded = maxExpanded == 0 ? Long.MAX_VALUE : maxExpanded;
+		this.maxRetained = maxRetained == 0 ? Integer.MAX_VALUE : maxRetained;
+		this.cancellation = cancellation;
+	}
+
+	/**
+	 * Checks a search against the budget.
+	 *
+	 * @param begin     System.nanoTime() when the search started
+	 * @param expanded  number of states it has expanded
+	 * @param retained  number of states it keeps in memory
+	 * @return the first limit the search has reached, or null if it is within the budget
+	 */
+	Limit check(long begin, long expanded, int retained)
+	{
+		if (cancellation != null && cancellation.isCancelled()) {
+			return Limit.CANCELLED;
+		}
+		if (expanded >= maxExpanded) {
+			return Limit.EXPANSIONS;
+		}
+		if (retained >= maxRetained) {
+			return Limit.MEMORY;
+		}
+		if (nanos != Long.MAX_VALUE && System.nanoTime() - begin >= nanos) {
+			return Limit.DEADLINE;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,63 @@
+package edu.iastate.cs472.proj1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * JFR event recorded for every search, carrying the counters of its SearchResult.  The event is
+ * disabled unless a recording enables edu.iastate.cs472.proj1.Search, and a disabled event costs a
+ * single check per search.  It is committed as the search finishes, with the time the search took
+ * in its Search Time field.
+ *
+ */
+@Name("edu.iastate.cs472.proj1.Search")
+@Label("8-Puzzle Search")
+@Category("8-Puzzle")
+@Description("One search for the solution of an 8-puzzle")
+class SearchEvent extends Event
+{
+	@Label("Engine")
+	String engine;
+
+	@Label("Heuristic")
+	String heuristic;
+
+	@Label("Moves")
+	@Description("Number of moves of the solution, -1 if there is none")
+	int moves;
+
+	@Label("Limit")
+	@Description("The budget limit that stopped the search, if any")
+	String limit;
+
+	@Label("Bound")
+	@Description("Factor by which the solution may be longer than an optimal one")
+	double bound;
+
+	@Label("Expanded")
+	long expanded;
+
+	@Label("Generated")
+	long generated;
+
+	@Label("Reopened")
+	long reopened;
+
+	@Label("Duplicates")
+	long duplicates;
+
+	@Label("Peak OPEN")
+	int peakOpen;
+
+	@Label("Peak CLOSED")
+	int peakClosed;
+
+	@Label("Search Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long nanos;
+}
@@ -0,0 +1,66 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ *
+ * Publishes the result of every search to the registered SearchListeners and as a SearchEvent to
+ * JFR.  With no listener and no recording, publishing a result costs two checks.
+ *
+ */
+public final class SearchEvents
+{
+	private static final List<SearchListener> listeners = new CopyOnWriteArrayList<>();
+
+	private SearchEvents()
+	{
+	}
+
+	/**
+	 * @param l listener to call after every search, in every thread
+	 */
+	public static void addListener(SearchListener l)
+	{
+		listeners.add(l);
+	}
+
+	/**
+	 * @param l a listener added before
+	 * @return true if it was registered
+	 */
+	public static boolean removeListener(SearchListener l)
+	{
+		return listeners.remove(l);
+	}
+
+	/**
+	 * Records and passes on the result of a search.
+	 *
+	 * @param result
+	 * @return result
+	 */
+	static SearchResult publish(SearchResult result)
+	{
+		SearchEvent event = new SearchEvent();
+		if (event.isEnabled()) {
+			event.engine = result.engine();
+			event.heuristic = result.heuristic().name();
+			event.moves = result.numMoves();
+			event.bound = result.bound();
+			event.limit = result.budgetExceeded() ? result.limit().name() : null;
+			event.expanded = result.expanded();
+			event.generated = result.generated();
+			event.reopened = result.reopened();
+			event.duplicates = result.duplicates();
+			event.peakOpen = result.peakOpen();
+			event.peakClosed = result.peakClosed();
+			event.nanos = result.nanos();
+			event.commit();
+		}
+		for (SearchListener l : listeners) {
+			l.searchFinished(result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,19 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * Receives the result of every search, for monitoring.  Register one with
+ * SearchEvents.addListener().
+ *
+ * The listener is called on the thread that ran the search, right after it finished, so it should
+ * return quickly and must be safe to call from several threads at once.
+ *
+ */
+@FunctionalInterface
+public interface SearchListener
+{
+	/**
+	 * @param result result and counters of the search that just finished
+	 */
+	void searchFinished(SearchResult result);
+}
@@ -0,0 +1,273 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ *
+ * The outcome of one search: the solution, if any, together with counters describing the work
+ * the search did.  The counters are plain fields incremented as the search runs, so they are
+ * always collected.  Every result is also passed to the SearchListeners and recorded as a
+ * SearchEvent; see SearchEvents.
+ *
+ * Counters an engine has no use for stay 0; IDA*, for one, keeps no OPEN or CLOSED list.
+ *
+ * A search stopped by its SearchBudget has no solution; limit() tells which limit it ran into,
+ * partialMoves() leads to the most promising state it expanded, and lowerBound() is the least
+ * number of moves a solution can have, as far as the search got.
+ *
+ */
+public class SearchResult
+{
+	private final String engine;
+	private final State start;
+	private final Heuristic heu;
+	private final Move[] moves;         // null if the search found no solution
+	private final Counters counters;
+	private final long nanos;
+	private final double bound;         // the solution is at most this many times longer than optimal
+	private final SearchBudget.Limit limit;   // null if the search was not stopped
+	private final Move[] partial;       // moves to the most promising state, if stopped
+	private final int lowerBound;       // least length of a solution, if stopped
+
+	/**
+	 * @param engine    name of the search algorithm
+	 * @param s0        initial state
+	 * @param h         heuristic
+	 * @param moves     moves from s0 to the goal, or null if there is no solution
+	 * @param counters  the counters of the search; they are not copied
+	 * @param nanos     time taken by the search
+	 */
+	SearchResult(String engine, State s0, Heuristic h, Move[] moves, Counters counters, long nanos)
+	{
+		this(engine, s0, h, moves, counters, nanos, 1);
+	}
+
+	/**
+	 * @param engine    name of the search algorithm
+	 * @param s0        initial state
+	 * @param h         heuristic
+	 * @param moves     moves from s0 to the goal, or null if there is no solution
+	 * @param counters  the counters of the search; they are not copied
+	 * @param nanos     time taken by the search
+	 * @param bound     factor, at least 1, by which the solution may be longer than an optimal one
+	 */
+	SearchResult(String engine, State s0, Heuristic h, Move[] moves, Counters counters, long nanos, double bound)
+	{
+		this(engine, s0, h, moves, counters, nanos, bound, null, null, -1);
+	}
+
+	/**
+	 * The result of a search stopped by its budget.
+	 *
+	 * @param engine      name of the search algorithm
+	 * @param s0          initial state
+	 * @param h           heuristic
+	 * @param counters    the counters of the search; they are not copied
+	 * @param nanos       time taken by the search
+	 * @param limit       the limit the search ran into
+	 * @param partial     moves from s0 to the most promising state expanded
+	 * @param lowerBound  least number of moves of a solution
+	 */
+	SearchResult(String engine, State s0, Heuristic h, Counters counters, long nanos,
+			SearchBudget.Limit limit, Move[] partial, int lowerBound)
+	{
+		this(engine, s0, h, null, counters, nanos, 1, limit, partial, lowerBound);
+	}
+
+	private SearchResult(String engine, State s0, Heuristic h, Move[] moves, Counters counters, long nanos,
+			double bound, SearchBudget.Limit limit, Move[] partial, int lowerBound)
+	{
+		this.engine = engine;
+		this.start = s0;
+		this.heu = h;
+		this.moves = moves;
+		this.counters = counters;
+		this.nanos = nanos;
+		this.bound = bound;
+		this.limit = limit;
+		this.partial = partial;
+		this.lowerBound = lowerBound;
+	}
+
+	/**
+	 * @return true if a solution was found
+	 */
+	public boolean solved()
+	{
+		return moves != null;
+	}
+
+	/**
+	 * @return true if the search was stopped by its budget before it could finish
+	 */
+	public boolean budgetExceeded()
+	{
+		return limit != null;
+	}
+
+	/**
+	 * @return the limit the search ran into, or null if it was not stopped
+	 */
+	public SearchBudget.Limit limit()
+	{
+		return limit;
+	}
+
+	/**
+	 * @return the moves from the initial state to the state with the lowest estimate that the
+	 *         search expanded before it was stopped, in a new array
+	 * @throws IllegalStateException if the search was not stopped
+	 */
+	public Move[] partialMoves() throws IllegalStateException
+	{
+		if (limit == null) {
+			throw new IllegalStateException("The search was not stopped");
+		}
+		return Arrays.copyOf(partial, partial.length);
+	}
+
+	/**
+	 * @return the least number of moves a solution can have, as far as a stopped search got: the
+	 *         lowest cost on its OPEN list; -1 if the search was not stopped
+	 */
+	public int lowerBound()
+	{
+		return lowerBound;
+	}
+
+	/**
+	 * @return the moves of the solution, in a new array
+	 * @throws IllegalStateException if there is no solution
+	 */
+	public Move[] moves() throws IllegalStateException
+	{
+		if (moves == null) {
+			throw new IllegalStateException("No solution found");
+		}
+		return Arrays.copyOf(moves, moves.length);
+	}
+
+	/**
+	 * @return number of moves of the solution, -1 if there is none
+	 */
+	public int numMoves()
+	{
+		return moves == null ? -1 : moves.length;
+	}
+
+	/**
+	 * @return the solution string printed by EightPuzzle.solutionPath(), or "No solution found",
+	 *         followed by the limit if the search was stopped
+	 */
+	public String solution()
+	{
+		return moves == null ? noSolution() : EightPuzzle.solutionPath(start, heu, moves);
+	}
+
+	/**
+	 * Writes solution() to out without building the string first.
+	 *
+	 * @param out
+	 * @throws IOException if out does
+	 */
+	public void writeSolution(Appendable out) throws IOException
+	{
+		if (moves == null) {
+			out.append(noSolution());
+		} else {
+			EightPuzzle.writeSolution(start.board, start.blank, heu, moves, out);
+		}
+	}
+
+	/** @return name of the search algorithm, such as "A*" */
+	public String engine()        { return engine; }
+
+	/** @return the heuristic of the search */
+	public Heuristic heuristic()  { return heu; }
+
+	/** @return number of states whose successors were generated */
+	public long expanded()        { return counters.expanded; }
+
+	/** @return number of successor states generated */
+	public long generated()       { return counters.generated; }
+
+	/** @return number of states taken off CLOSED again because a shorter path to them was found */
+	public long reopened()        { return counters.reopened; }
+
+	/** @return number of successors dropped because their board was already reached as cheaply */
+	public long duplicates()      { return counters.duplicates; }
+
+	/** @return largest number of states on OPEN at once */
+	public int peakOpen()         { return counters.peakOpen; }
+
+	/** @return largest number of states on CLOSED at once */
+	public int peakClosed()       { return counters.peakClosed; }
+
+	/** @return time taken by the search, in nanoseconds */
+	public long nanos()           { return nanos; }
+
+	/**
+	 * @return factor by which the solution may be longer than an optimal one: 1 if it is optimal,
+	 *         w or less for weighted A* with weight w
+	 */
+	public double bound()         { return bound; }
+
+	private String noSolution()
+	{
+		return limit == null ? "No solution found" : "No solution found: " + limit.description();
+	}
+
+	@Override
+	public String toString()
+	{
+		return engine + " (" + heu + "): " + (moves != null ? moves.length + " moves"
+						: limit != null ? limit.description() + ", at least " + lowerBound + " moves"
+						: "no solution")
+				+ (bound > 1 ? String.format(" (within %.2f of optimal)", bound) : "")
+				+ ", " + counters.expanded + " expanded, " + counters.generated + " generated, "
+				+ counters.reopened + " reopened, " + counters.duplicates + " duplicates, peak OPEN "
+				+ counters.peakOpen + ", peak CLOSED " + counters.peakClosed + ", "
+				+ nanos / 1000 + " us";
+	}
+
+	/**
+	 * The counters a search increments while it runs.
+	 */
+	static final class Counters
+	{
+		long expanded;
+		long generated;
+		long reopened;
+		long duplicates;
+		int peakOpen;
+		int peakClosed;
+
+		void open(int size)
+		{
+			if (size > peakOpen) {
+				peakOpen = size;
+			}
+		}
+
+		void closed(int size)
+		{
+			if (size > peakClosed) {
+				peakClosed = size;
+			}
+		}
+
+		/* The counts so far, for a result taken while the search goes on */
+		Counters copy()
+		{
+			Counters c = new Counters();
+			c.expanded = expanded;
+			c.generated = generated;
+			c.reopened = reopened;
+			c.duplicates = duplicates;
+			c.peakOpen = peakOpen;
+			c.peakClosed = peakClosed;
+			return c;
+		}
+	}
+}
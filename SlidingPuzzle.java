@@ -0,0 +1,291 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ *
+ * The geometry and goal of a sliding puzzle on an N x N board: the 8-puzzle for N = 3, the
+ * 15-puzzle for N = 4, the 24-puzzle for N = 5.  A board is an int array holding the tile in each
+ * cell (row * N + column), 0 for the empty tile.
+ *
+ * State and the search engines around it keep the 8-puzzle packed into a single long, which is
+ * what makes them fast; they are not built on this class.  SlidingPuzzle, AdditivePatternDatabase
+ * and SlidingPuzzleSearch solve the larger sizes, where a board no longer fits in a long and the
+ * search has to be IDA* with a pattern database to finish at all.
+ *
+ * Moves are named as in Move: after the direction the tile travels.  Only single moves are legal.
+ *
+ */
+public class SlidingPuzzle
+{
+	/** The single moves, the only ones legal on an N x N board */
+	static final Move[] MOVES = {Move.LEFT, Move.RIGHT, Move.UP, Move.DOWN};
+
+	private final int size;
+	private final int cells;
+	private final int[] goal;          // tile by cell
+	private final int[] goalCell;      // cell by tile
+	private final int[][] sources;     // cell of the tile each single move slides, -1 if illegal
+	private final Move[][] legal;      // legal moves by cell of the empty tile, in the order of MOVES
+
+	/**
+	 * @param size  N, at least 2
+	 * @param goal  the goal board; a permutation of 0 .. N * N - 1
+	 * @throws IllegalArgumentException if goal is not a board of that size
+	 */
+	public SlidingPuzzle(int size, int[] goal) throws IllegalArgumentException
+	{
+		if (size < 2 || goal.length != size * size) {
+			throw new IllegalArgumentException("Goal is not a " + size + " x " + size + " board");
+		}
+		this.size = size;
+		this.cells = size * size;
+		this.goal = goal.clone();
+		this.goalCell = cellsOf(this.goal);
+
+		sources = new int[cells][MOVES.length];
+		for (int blank = 0; blank < cells; blank++) {
+			int row = blank / size, col = blank % size;
+			sources[blank][0] = col < size - 1 ? blank + 1 : -1;      // LEFT
+			sources[blank][1] = col > 0 ? blank - 1 : -1;             // RIGHT
+			sources[blank][2] = row < size - 1 ? blank + size : -1;   // UP
+			sources[blank][3] = row > 0 ? blank - size : -1;          // DOWN
+		}
+
+		legal = new Move[cells][];
+		for (int blank = 0; blank < cells; blank++) {
+			int n = 0;
+			Move[] moves = new Move[MOVES.length];
+			for (Move m : MOVES) {
+				if (sources[blank][m.ordinal()] >= 0) {
+					moves[n++] = m;
+				}
+			}
+			legal[blank] = Arrays.copyOf(moves, n);
+		}
+	}
+
+	/**
+	 * The spiral goal of the 8-puzzle, generalised: tiles 1, 2, ... run clockwise round the border
+	 * and then inward, and the empty tile takes the last cell of the spiral.  For N = 3 it is
+	 * State.GOAL.
+	 *
+	 * @param size N
+	 * @return the puzzle
+	 */
+	public static SlidingPuzzle spiral(int size)
+	{
+		int[] goal = new int[size * size];
+		int top = 0, bottom = size - 1, left = 0, right = size - 1, tile = 1;
+		while (tile < size * size) {
+			for (int c = left; c <= right && tile < size * size; c++)   goal[top * size + c] = tile++;
+			top++;
+			for (int r = top; r <= bottom && tile < size * size; r++)   goal[r * size + right] = tile++;
+			right--;
+			for (int c = right; c >= left && tile < size * size; c--)   goal[bottom * size + c] = tile++;
+			bottom--;
+			for (int r = bottom; r >= top && tile < size * size; r--)   goal[r * size + left] = tile++;
+			left++;
+		}
+		return new SlidingPuzzle(size, goal);
+	}
+
+	/**
+	 * The usual goal of the 15- and 24-puzzle: tiles in row-major order, the empty tile last.
+	 *
+	 * @param size N
+	 * @return the puzzle
+	 */
+	public static SlidingPuzzle ordered(int size)
+	{
+		int[] goal = new int[size * size];
+		for (int cell = 0; cell < goal.length - 1; cell++) {
+			goal[cell] = cell + 1;
+		}
+		return new SlidingPuzzle(size, goal);
+	}
+
+	/** @return N */
+	public int size()   { return size; }
+
+	/** @return N * N */
+	public int cells()  { return cells; }
+
+	/**
+	 * @return the goal board, in a new array
+	 */
+	public int[] goal()
+	{
+		return goal.clone();
+	}
+
+	/**
+	 * @param tile
+	 * @return the cell of tile on the goal board
+	 */
+	public int goalCell(int tile)
+	{
+		return goalCell[tile];
+	}
+
+	/**
+	 * @param blank  cell of the empty tile
+	 * @param i      index of a move in MOVES, which is also its ordinal
+	 * @return the cell of the tile the move slides into the empty cell, -1 if it is illegal
+	 */
+	int source(int blank, int i)
+	{
+		return sources[blank][i];
+	}
+
+	/**
+	 * @param blank  cell of the empty tile
+	 * @return the legal moves, in the order of MOVES; the array is shared and must not be modified
+	 */
+	Move[] legalMoves(int blank)
+	{
+		return legal[blank];
+	}
+
+	/**
+	 * Checks that a board is a permutation of the tiles of this puzzle.
+	 *
+	 * @param tiles
+	 * @throws IllegalArgumentException if it is not
+	 */
+	public void validate(int[] tiles) throws IllegalArgumentException
+	{
+		if (tiles.length != cells) {
+			throw new IllegalArgumentException("A board has " + cells + " tiles");
+		}
+		boolean[] used = new boolean[cells];
+		for (int tile : tiles) {
+			if (tile < 0 || tile >= cells || used[tile]) {
+				throw new IllegalArgumentException("Invalid tile " + tile);
+			}
+			used[tile] = true;
+		}
+	}
+
+	/**
+	 * A board can reach the goal exactly when the permutation taking it to the goal, counting the
+	 * empty tile, has the parity of the distance the empty tile travels: every move is a
+	 * transposition with the empty tile and moves it by one cell.
+	 *
+	 * @param tiles a valid board
+	 * @return true if the goal can be reached from it
+	 */
+	public boolean solvable(int[] tiles)
+	{
+		// each tile goes from its cell to its goal cell; a permutation with k cycles is the product
+		// of cells - k transpositions
+		boolean[] seen = new boolean[cells];
+		int cycles = 0;
+		for (int cell = 0; cell < cells; cell++) {
+			if (!seen[cell]) {
+				cycles++;
+				for (int c = cell; !seen[c]; c = goalCell[tiles[c]]) {
+					seen[c] = true;
+				}
+			}
+		}
+		int transpositions = cells - cycles;
+
+		int blank = cellsOf(tiles)[0];
+		int travel = Math.abs(blank / size - goalCell[0] / size) + Math.abs(blank % size - goalCell[0] % size);
+		return (transpositions + travel) % 2 == 0;
+	}
+
+	/**
+	 * Parses the tiles of a board written in row-major order, separated by spaces or commas.
+	 *
+	 * @param line
+	 * @return the board
+	 * @throws IllegalArgumentException if the line does not hold a valid board
+	 */
+	public int[] parse(CharSequence line) throws IllegalArgumentException
+	{
+		String[] fields = line.toString().trim().split("[\\s,]+");
+		int[] tiles = new int[fields.length];
+		try {
+			for (int i = 0; i < fields.length; i++) {
+				tiles[i] = Integer.parseInt(fields[i]);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid tile", e);
+		}
+		validate(tiles);
+		return tiles;
+	}
+
+	/**
+	 * Writes a board as N lines of tiles, right-aligned in columns, the empty tile left blank.
+	 *
+	 * @param tiles
+	 * @return the board as text, without a trailing line break
+	 */
+	public String toString(int[] tiles)
+	{
+		int width = Integer.toString(cells - 1).length();
+		StringBuilder sb = new StringBuilder();
+		for (int cell = 0; cell < cells; cell++) {
+			String tile = tiles[cell] == 0 ? "" : Integer.toString(tiles[cell]);
+			for (int pad = tile.length(); pad < width; pad++) {
+				sb.append(' ');
+			}
+			sb.append(tile).append(cell % size == size - 1 ? (cell == cells - 1 ? "" : "\n") : " ");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Prints a solution in the format of EightPuzzle.solutionPath(), with the writer of
+	 * EightPuzzle: the number of moves and the heuristic, then the boards from the initial one to
+	 * the goal with each move between the boards it connects.
+	 *
+	 * @param tiles      initial board
+	 * @param moves      legal moves leading from it to the goal
+	 * @param heuristic  name of the heuristic, to report
+	 * @return the solution string
+	 */
+	public String solutionPath(int[] tiles, Move[] moves, String heuristic)
+	{
+		StringBuilder path = new StringBuilder();
+		try {
+			EightPuzzle.writeSolution(heuristic, moves, new EightPuzzle.SolutionBoard() {
+				final int[] board = tiles.clone();
+				int blank = cellsOf(board)[0];
+
+				@Override
+				public void write(Appendable out) throws IOException
+				{
+					out.append(SlidingPuzzle.this.toString(board));
+				}
+
+				@Override
+				public void apply(Move m)
+				{
+					int from = source(blank, m.ordinal());     // the single moves come first in Move
+					board[blank] = board[from];
+					board[from] = 0;
+					blank = from;
+				}
+			}, path);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);   // a StringBuilder does not throw
+		}
+		return path.toString();
+	}
+
+	/* Inverts a board: the cell of each tile */
+	static int[] cellsOf(int[] tiles)
+	{
+		int[] cells = new int[tiles.length];
+		for (int cell = 0; cell < tiles.length; cell++) {
+			cells[tiles[cell]] = cell;
+		}
+		return cells;
+	}
+}
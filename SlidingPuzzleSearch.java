@@ -0,0 +1,226 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ *
+ * IDA* search for N x N sliding puzzles, guided by an AdditivePatternDatabase.  It runs the loop
+ * of IterativeDeepening, as IterativeDeepeningSearch does for the 8-puzzle: repeated depth-first
+ * searches with a growing bound on g + h, walking a single board in place and never undoing the
+ * previous move.  Along with the board it keeps the index of each pattern group and the estimate,
+ * and updates them by the change for the one tile each move slides.  Each solve() starts again
+ * from the initial board.
+ *
+ */
+public class SlidingPuzzleSearch extends IterativeDeepening
+{
+	private final SlidingPuzzle puzzle;
+	private final AdditivePatternDatabase pdb;
+	private final int[] start;
+
+	private final int[] tiles;       // the board walked by the search
+	private final int[] index;       // index of each group on it
+	private int blank;
+	private int h;                   // estimate of the board
+	private int depth = 0;           // number of moves from start to the board
+	private int[] trail = new int[64];    // cell of the empty tile before each move, by depth
+
+	/**
+	 * @param pdb    pattern database, which also gives the puzzle
+	 * @param tiles  initial board; it is not modified
+	 * @throws IllegalArgumentException if the board is not valid for the puzzle
+	 */
+	public SlidingPuzzleSearch(AdditivePatternDatabase pdb, int[] tiles) throws IllegalArgumentException
+	{
+		this.puzzle = pdb.puzzle();
+		this.pdb = pdb;
+		puzzle.validate(tiles);
+		this.start = tiles.clone();
+
+		this.tiles = tiles.clone();
+		this.index = new int[pdb.groups()];
+	}
+
+	/**
+	 * Runs the search.
+	 *
+	 * @return the moves of an optimal solution, or null if the board cannot reach the goal
+	 */
+	public Move[] solve()
+	{
+		return solve(SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs the search within a budget, checked before every expansion; the states kept are those
+	 * on the current path.
+	 *
+	 * @param budget  limits of the search
+	 * @return the moves of an optimal solution, or null if the board cannot reach the goal or the
+	 *         search was stopped by its budget, which limit() then tells
+	 */
+	public Move[] solve(SearchBudget budget)
+	{
+		limit = null;
+		return puzzle.solvable(start) ? deepen(budget, System.nanoTime()) : null;
+	}
+
+	/**
+	 * @return the limit the last solve() ran into, or null if it was not stopped
+	 */
+	public SearchBudget.Limit limit()
+	{
+		return limit;
+	}
+
+	/**
+	 * @return the least number of moves a solution can have, as far as the last solve() got if it
+	 *         was stopped: the bound of its last iteration; -1 if it was not stopped
+	 */
+	public int lowerBound()
+	{
+		return limit == null ? -1 : lowerBound;
+	}
+
+	/**
+	 * @return number of boards whose successors were generated, over all iterations of the last
+	 *         solve()
+	 */
+	public long expanded()
+	{
+		return count.expanded;
+	}
+
+	@Override
+	void reset()
+	{
+		System.arraycopy(start, 0, tiles, 0, tiles.length);
+		System.arraycopy(pdb.indices(start), 0, index, 0, index.length);
+		blank = SlidingPuzzle.cellsOf(start)[0];
+		h = pdb.estimate(start);
+		depth = 0;
+	}
+
+	@Override
+	int cost()
+	{
+		return depth + h;
+	}
+
+	@Override
+	boolean isGoal()
+	{
+		if (h != 0) {
+			return false;
+		}
+		for (int cell = 0; cell < tiles.length; cell++) {
+			if (tiles[cell] != 0 && puzzle.goalCell(tiles[cell]) != cell) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	Move[] moves()
+	{
+		return puzzle.legalMoves(blank);
+	}
+
+	@Override
+	void apply(Move m)
+	{
+		if (depth == trail.length) {
+			trail = Arrays.copyOf(trail, 2 * depth);
+		}
+		trail[depth++] = blank;
+		slide(puzzle.source(blank, m.ordinal()));     // the single moves come first in Move
+	}
+
+	@Override
+	void undo(Move m)
+	{
+		slide(trail[--depth]);
+	}
+
+	/* Slides the tile at from into the empty cell, updating its group's index and the estimate */
+	private void slide(int from)
+	{
+		int tile = tiles[from];
+		int g = pdb.groupOf(tile);
+		h -= pdb.distance(g, index[g]);
+		index[g] += (blank - from) * pdb.weight(tile);
+		h += pdb.distance(g, index[g]);
+
+		tiles[blank] = tile;
+		tiles[from] = 0;
+		blank = from;
+	}
+
+	/**
+	 * Solves puzzles of any size, one per line, each given as its tiles in row-major order.
+	 * Arguments, all optional:
+	 *
+	 *     input file     file to read, or - (the default) for standard input
+	 *     --size n       N, default 4 (the 15-puzzle)
+	 *     --ordered      use the goal with the tiles in row-major order instead of the spiral
+	 *     --group k      tiles per pattern group; 1 for the Manhattan distance, default 5 for
+	 *                    N up to 4 and 4 above
+	 *     --deadline ms  time allowed for each puzzle, in milliseconds; default no limit
+	 *
+	 * @param args
+	 * @throws IOException if reading fails
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String input = "-";
+		int size = 4, group = 0;
+		long deadline = 0;
+		boolean ordered = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--size":     size = Integer.parseInt(args[++i]); break;
+				case "--ordered":  ordered = true; break;
+				case "--group":    group = Integer.parseInt(args[++i]); break;
+				case "--deadline": deadline = Long.parseLong(args[++i]); break;
+				default:           input = args[i];
+			}
+		}
+
+		SlidingPuzzle puzzle = ordered ? SlidingPuzzle.ordered(size) : SlidingPuzzle.spiral(size);
+		AdditivePatternDatabase pdb = group == 1 ? AdditivePatternDatabase.manhattan(puzzle)
+				: AdditivePatternDatabase.partitioned(puzzle, group);
+		String heuristic = group == 1 ? "Manhattan distance" : "additive pattern database";
+		SearchBudget budget = new SearchBudget(deadline * 1_000_000, 0, 0, null);
+
+		try (BufferedReader in = input.equals("-")
+				? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII))
+				: Files.newBufferedReader(Paths.get(input), StandardCharsets.US_ASCII)) {
+			String line;
+			for (long number = 1; (line = in.readLine()) != null; number++) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				System.out.println("Puzzle on line " + number + ":");
+				try {
+					int[] tiles = puzzle.parse(line);
+					SlidingPuzzleSearch search = new SlidingPuzzleSearch(pdb, tiles);
+					Move[] moves = search.solve(budget);
+					System.out.println(moves != null ? puzzle.solutionPath(tiles, moves, heuristic)
+							: search.limit() != null ? "No solution found: " + search.limit().description()
+									+ ", at least " + search.lowerBound() + " moves"
+							: "No solution exists for the following initial state:\n\n" + puzzle.toString(tiles));
+				} catch (IllegalArgumentException e) {
+					System.out.println("Invalid puzzle format: " + line);
+				}
+				System.out.println();
+			}
+		}
+	}
+}
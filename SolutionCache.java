@@ -0,0 +1,223 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Size-bounded cache of A* solutions in front of EightPuzzle.AStar().  A solution is determined by
+ * the initial board and the heuristic alone, the heuristic also fixing the move set, so the cache
+ * is keyed on those two, packed into one long, and returns exactly the string AStar() would.
+ *
+ * In symmetric mode the key holds the representative of the board's symmetry class instead (see
+ * Symmetry), so the up to eight boards of a class share one entry and one search.  The solution
+ * of the representative is mapped back to each board; it is optimal, but when a board has several
+ * optimal solutions it need not be the one AStar() would print.
+ *
+ * When full, the least recently used solution is evicted.  A board that is being solved is kept
+ * as a pending future in a map of its own, so concurrent requests for it wait for the one search
+ * in flight rather than starting their own; the solution only enters the LRU order once the
+ * search completes, so eviction never drops a search in flight, however many are running.  A
+ * search that fails is removed again and the failure passed on to everyone waiting for it.  A
+ * search stopped by its SearchBudget is removed as well, and those waiting for it search again
+ * within their own budgets.
+ *
+ */
+public class SolutionCache
+{
+	private final int capacity;
+	private final boolean symmetric;
+	private final Map<Long, CompletableFuture<Move[]>> solutions;   // in access order; null moves
+	                                                                // if there is no solution
+	private final Map<Long, CompletableFuture<Move[]>> inFlight = new HashMap<>();   // guarded by
+	                                                                                 // solutions
+	private static final Move[] STOPPED = new Move[0];   // completes a search stopped by its budget
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param capacity maximum number of solutions kept
+	 */
+	public SolutionCache(int capacity)
+	{
+		this(capacity, false);
+	}
+
+	/**
+	 * @param capacity   maximum number of solutions kept
+	 * @param symmetric  true to share solutions between boards related by a symmetry
+	 */
+	public SolutionCache(int capacity, boolean symmetric)
+	{
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.symmetric = symmetric;
+		this.solutions = new LinkedHashMap<Long, CompletableFuture<Move[]>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<Move[]>> eldest)
+			{
+				return size() > SolutionCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the A* solution for s0 with heuristic h, solving it only if it is neither cached nor
+	 * being solved by another thread.
+	 *
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 *
+	 * @param s0  initial state
+	 * @param h   heuristic
+	 * @return    solution string, as returned by EightPuzzle.AStar()
+	 */
+	public String solve(State s0, Heuristic h)
+	{
+		Move[] moves = moves(s0, h);
+
+		return moves == null ? "No solution found" : EightPuzzle.solutionPath(s0, h, moves);
+	}
+
+	/**
+	 * Same as solve(), but returns the moves of the solution.
+	 *
+	 * @param s0  initial state
+	 * @param h   heuristic
+	 * @return    the moves of the solution, in an array the caller must not modify, or null if
+	 *            there is none
+	 */
+	public Move[] moves(State s0, Heuristic h)
+	{
+		return moves(s0, h, SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Same as moves(s0, h), but a search run for the request is limited by budget.  A search
+	 * stopped by its budget is not cached.
+	 *
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 *
+	 * @param s0      initial state
+	 * @param h       heuristic
+	 * @param budget  limits of a search run for the request
+	 * @return        the moves of the solution, in an array the caller must not modify, or null if
+	 *                there is none or the search was stopped by its budget
+	 */
+	public Move[] moves(State s0, Heuristic h, SearchBudget budget)
+	{
+		int k = symmetric ? Symmetry.canonicalSymmetry(s0.board) : 0;
+		Move[] moves = solveCanonical(k == 0 ? s0 : new State(Symmetry.transform(s0.board, k)), h, budget);
+
+		return moves == null || k == 0 ? moves : Symmetry.toBoard(moves, k);
+	}
+
+	/* Looks up or solves the representative c; returns its solution moves, shared, or null */
+	private Move[] solveCanonical(State c, Heuristic h, SearchBudget budget)
+	{
+		Long key = key(c.board, h);
+		Move[] moves;
+		do {
+			moves = lookUpOrSolve(c, h, key, budget);
+		} while (moves == STOPPED);     // the search waited for was stopped: search again
+		return moves;
+	}
+
+	/* Waits for the search of key, or runs it if there is none; returns STOPPED if the search
+	   waited for was stopped by its budget, and null if this request's own search was */
+	private Move[] lookUpOrSolve(State c, Heuristic h, Long key, SearchBudget budget)
+	{
+		CompletableFuture<Move[]> solution;
+		boolean owner = false;
+
+		synchronized (solutions) {
+			solution = solutions.get(key);
+			if (solution == null) {
+				solution = inFlight.get(key);
+			}
+			if (solution == null) {
+				solution = new CompletableFuture<>();
+				inFlight.put(key, solution);
+				owner = true;
+			}
+		}
+
+		if (!owner) {
+			Move[] moves;
+			try {
+				moves = solution.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+			if (moves != STOPPED) {
+				hits.increment();
+			}
+			return moves;
+		}
+
+		misses.increment();
+		try {
+			SearchResult result = EightPuzzle.search(c, h, budget);
+			if (result.budgetExceeded()) {
+				synchronized (solutions) {
+					inFlight.remove(key, solution);
+				}
+				solution.complete(STOPPED);
+				return null;
+			}
+			Move[] moves = result.solved() ? result.moves() : null;
+			solution.complete(moves);
+			synchronized (solutions) {
+				inFlight.remove(key);
+				solutions.put(key, solution);
+			}
+			return moves;
+		} catch (RuntimeException | Error e) {
+			synchronized (solutions) {
+				inFlight.remove(key, solution);
+			}
+			solution.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * @return number of requests answered from the cache, including those that waited for a
+	 *         search already in flight
+	 */
+	public long hits()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of requests that ran a search
+	 */
+	public long misses()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of solutions cached or in flight; those in flight do not count toward the
+	 *         capacity
+	 */
+	public int size()
+	{
+		synchronized (solutions) {
+			return solutions.size() + inFlight.size();
+		}
+	}
+
+	/* Packs the board (36 bits) and the heuristic, which determines the move set, into a key */
+	private static long key(long board, Heuristic h)
+	{
+		return board | (long) h.ordinal() << 40;
+	}
+}
@@ -2,47 +2,102 @@ package edu.iastate.cs472.proj1;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Scanner;
 
 public class State implements Cloneable, Comparable<State>
 {
-    public int[][] board;         // configuration of tiles 
+    public long board;            // configuration of tiles packed as nine 4-bit nibbles in row-major
+                                  // order, the top-left cell in the most significant nibble
+    public int blank;             // cell (row * 3 + column) of the empty tile
     public State previous;        // previous node on the OPEN/CLOSED list
     public State next;            // next node on the OPEN/CLOSED list
-    public State predecessor;     // predecessor node on the path from the initial state 
+    public State predecessor;     // predecessor node on the path from the initial state
     public Move move;             // the move that generated this state from its predecessor
     public int numMoves;          // number of moves from the initial state to this state
 
-    public static Heuristic heu;  // heuristic used. shared by all the states. 
+    public Heuristic heu;         // heuristic used by the search this state belongs to; passed on
+                                  // to successors, so each search carries its own
 
-    private int numMismatchedTiles = -1;   // number of mismatched tiles between this state 
-                                           // and the goal state; negative if not computed yet.
-    private int ManhattanDistance = -1;    // Manhattan distance between this state and the 
-                                           // goal state; negative if not computed yet. 
-    private int numSingleDoubleMoves = -1; // number of single and double moves with each double 
-                                           // move counted as one; negative if not computed yet. 
+    /* Packed goal configuration  1 2 3 / 8 _ 4 / 7 6 5 */
+    public static final long GOAL = pack(new int[][]{{1, 2, 3}, {8, 0, 4}, {7, 6, 5}});
+
+    /* Number of characters writeBoard() writes */
+    public static final int BOARD_LENGTH = 17;
+
+    /* The text of a row by its three tiles as nibbles, such as "8   4", for writeBoard() */
+    private static final String[] ROW_TEXT = new String[1 << 12];
+
+    private int numMismatchedTiles;        // number of mismatched tiles between this state
+                                           // and the goal state
+    private int ManhattanDistance;         // Manhattan distance between this state and the
+                                           // goal state
+
+    /* Contribution of a tile on a cell to each heuristic, indexed by tile * 9 + cell. The empty
+       tile contributes nothing. */
+    private static final byte[] MISMATCHED = new byte[81];
+    private static final byte[] MANHATTAN = new byte[81];
+
+    /* Change of each contribution when a tile slides from one cell to another, indexed by
+       (tile * 9 + from) * 9 + to */
+    private static final byte[] MISMATCHED_DELTA = new byte[729];
+    private static final byte[] MANHATTAN_DELTA = new byte[729];
+
+    static {
+        for (int cell = 0; cell < 9; cell++) {
+            int tile = tileAt(GOAL, cell);
+            if (tile == 0) continue;
+            for (int at = 0; at < 9; at++) {
+                int distance = Math.abs(at / 3 - cell / 3) + Math.abs(at % 3 - cell % 3);
+                MISMATCHED[tile * 9 + at] = (byte) (at == cell ? 0 : 1);
+                MANHATTAN[tile * 9 + at] = (byte) distance;
+            }
+        }
+        for (int tile = 0; tile < 9; tile++) {
+            for (int from = 0; from < 9; from++) {
+                for (int to = 0; to < 9; to++) {
+                    int i = (tile * 9 + from) * 9 + to;
+                    MISMATCHED_DELTA[i] = (byte) (MISMATCHED[tile * 9 + to] - MISMATCHED[tile * 9 + from]);
+                    MANHATTAN_DELTA[i] = (byte) (MANHATTAN[tile * 9 + to] - MANHATTAN[tile * 9 + from]);
+                }
+            }
+        }
+        for (int row = 0; row < ROW_TEXT.length; row++) {
+            char[] text = new char[5];
+            for (int i = 0; i < 3; i++) {
+                int tile = (row >>> ((2 - i) << 2)) & 0xF;
+                text[2 * i] = tile == 0 ? ' ' : Character.forDigit(tile, 16);
+                if (i < 2) {
+                    text[2 * i + 1] = ' ';
+                }
+            }
+            ROW_TEXT[row] = new String(text);
+        }
+    }
 
     /**
      * Constructor for the initial state.
      */
-    public State(int[][] board) throws IllegalArgumentException 
+    public State(int[][] board) throws IllegalArgumentException
     {
         if (board.length != 3 || board[0].length != 3) {
             throw new IllegalArgumentException("Board must be 3x3");
         }
-        
-        this.board = new int[3][3];
+
         boolean[] used = new boolean[9];
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
                 if (board[i][j] < 0 || board[i][j] > 8 || used[board[i][j]]) {
                     throw new IllegalArgumentException("Invalid board configuration");
                 }
-                this.board[i][j] = board[i][j];
                 used[board[i][j]] = true;
             }
         }
-        
+        this.board = pack(board);
+        this.blank = findEmptyTile();
+        computeHeuristics();
+
         this.previous = null;
         this.next = null;
         this.predecessor = null;
@@ -55,24 +110,28 @@ public class State implements Cloneable, Comparable<State>
      */
     public State(String inputFileName) throws FileNotFoundException, IllegalArgumentException
     {
-        this.board = new int[3][3];
+        int[][] tiles = new int[3][3];
         Scanner scanner = new Scanner(new File(inputFileName));
-        
+
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
                 if (!scanner.hasNextInt()) {
+                    scanner.close();
                     throw new IllegalArgumentException("Invalid file format");
                 }
-                this.board[i][j] = scanner.nextInt();
+                tiles[i][j] = scanner.nextInt();
             }
         }
-        
+
         scanner.close();
-        
-        if (!isValidBoard()) {
+
+        if (!isValidBoard(tiles)) {
             throw new IllegalArgumentException("Invalid board configuration");
         }
-        
+        this.board = pack(tiles);
+        this.blank = findEmptyTile();
+        computeHeuristics();
+
         this.previous = null;
         this.next = null;
         this.predecessor = null;
@@ -81,98 +140,132 @@ public class State implements Cloneable, Comparable<State>
     }
 
     /**
-     * Generate the successor state resulting from a given move.
+     * Constructor for an initial state from a packed board.
+     */
+    public State(long board) throws IllegalArgumentException
+    {
+        int used = 0;
+        for (int i = 0; i < 9; i++) {
+            used |= 1 << tileAt(board, i);
+        }
+        if (used != 0x1FF || (board >>> 36) != 0) {
+            throw new IllegalArgumentException("Invalid board configuration");
+        }
+        this.board = board;
+        this.blank = findEmptyTile();
+        computeHeuristics();
+    }
+
+    /**
+     * Constructor for the dummy head node of an OrderedStateList.  The board is all zeros and
+     * never compared against a real state.
+     */
+    State()
+    {
+    }
+
+    /**
+     * Generate the successor state resulting from a given single or double move.  Legality is
+     * looked up in the MoveTable before anything is copied; searches iterate over
+     * MoveTable.legalMoves() and so never pass an illegal move.
      */
-    public State successorState(Move m) throws IllegalArgumentException 
+    public State successorState(Move m) throws IllegalArgumentException
     {
-        int[] emptyPos = findEmptyTile();
-        int row = emptyPos[0], col = emptyPos[1];
-        
+        int[] from = MoveTable.sources(blank, m);
+        if (from.length == 0) {
+            throw new IllegalArgumentException("Cannot move " + m);
+        }
+
         State successor = (State) this.clone();
         successor.predecessor = this;
         successor.move = m;
         successor.numMoves = this.numMoves + 1;
-        
-        switch (m) {
-            case LEFT:
-                if (col == 2) throw new IllegalArgumentException("Cannot move left");
-                successor.board[row][col] = successor.board[row][col + 1];
-                successor.board[row][col + 1] = 0;
-                break;
-            case RIGHT:
-                if (col == 0) throw new IllegalArgumentException("Cannot move right");
-                successor.board[row][col] = successor.board[row][col - 1];
-                successor.board[row][col - 1] = 0;
-                break;
-            case UP:
-                if (row == 2) throw new IllegalArgumentException("Cannot move up");
-                successor.board[row][col] = successor.board[row + 1][col];
-                successor.board[row + 1][col] = 0;
-                break;
-            case DOWN:
-                if (row == 0) throw new IllegalArgumentException("Cannot move down");
-                successor.board[row][col] = successor.board[row - 1][col];
-                successor.board[row - 1][col] = 0;
-                break;
-            // Implement DBL_LEFT, DBL_RIGHT, DBL_UP, DBL_DOWN similarly
+        for (int cell : from) {
+            successor.slide(cell);
         }
-        
+
         return successor;
     }
-    /* Implements the inversion count algorithm to determine if the puzzle is solvable */
-    public boolean solvable()
+
+    /* Applies a legal move to this state in place, for searches that walk a single board instead
+       of creating a successor for every move. */
+    void applyMove(Move m)
     {
-        int inversions = 0;
-        for (int i = 0; i < 8; i++) {
-            for (int j = i + 1; j < 9; j++) {
-                if (board[i / 3][i % 3] > board[j / 3][j % 3] && board[i / 3][i % 3] != 0 && board[j / 3][j % 3] != 0) {
-                    inversions++;
-                }
-            }
+        for (int cell : MoveTable.sources(blank, m)) {
+            slide(cell);
         }
-        return inversions % 2 == 0;
+        numMoves++;
     }
+
+    /* Takes back a move made by applyMove() */
+    void undoMove(Move m)
+    {
+        for (int cell : MoveTable.sources(blank, m.inverse())) {
+            slide(cell);
+        }
+        numMoves--;
+    }
+
+    /* Returns a copy of this state, detached from any list and path, to be the initial state of
+       a search with heuristic h. The original is left untouched, so several searches can start
+       from the same state at the same time. */
+    public State startFor(Heuristic h)
+    {
+        State start = (State) this.clone();
+        start.move = null;
+        start.numMoves = 0;
+        start.heu = h;
+        return start;
+    }
+
+    /* Implements the inversion count algorithm to determine if the puzzle is solvable. Single moves
+       preserve the parity of the inversion count, so the puzzle is solvable exactly when the parity
+       matches that of the goal (which has an odd number of inversions) */
+    public boolean solvable()
+    {
+        return inversions(board) % 2 == inversions(GOAL) % 2;
+    }
+
     /* Checks if the current state matches the goal state */
     public boolean isGoalState()
     {
-        int[][] goal = {{1, 2, 3}, {8, 0, 4}, {7, 6, 5}};
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] != goal[i][j]) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return board == GOAL;
     }
 
     /* Provides string representation fo the board (empty tiles are a space) */
-    @Override 
+    @Override
     public String toString()
     {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == 0) {
-                    sb.append("  ");
-                } else {
-                    sb.append(board[i][j]).append(" ");
-                }
-            }
-            sb.append("\n");
+        StringBuilder sb = new StringBuilder(BOARD_LENGTH);
+        try {
+            writeBoard(board, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // a StringBuilder does not throw
         }
-        return sb.toString().trim();
+        return sb.toString();
+    }
+
+    /**
+     * Writes a board as three lines of three tiles separated by spaces, the empty tile as a space,
+     * with no line break after the last line: always BOARD_LENGTH characters.
+     *
+     * @param board packed board
+     * @param out
+     * @throws IOException if out does
+     */
+    public static void writeBoard(long board, Appendable out) throws IOException
+    {
+        out.append(ROW_TEXT[(int) (board >>> shift(2)) & 0xFFF]).append('\n')
+           .append(ROW_TEXT[(int) (board >>> shift(5)) & 0xFFF]).append('\n')
+           .append(ROW_TEXT[(int) (board >>> shift(8)) & 0xFFF]);
     }
-    /* Creates a deep copy of the state  */
+
+    /* Creates a copy of the state. The packed board is a primitive, so no arrays need copying */
     @Override
     public Object clone()
     {
         try {
             State cloned = (State) super.clone();
-            cloned.board = new int[3][3];
-            for (int i = 0; i < 3; i++) {
-                System.arraycopy(this.board[i], 0, cloned.board[i], 0, 3);
-            }
             cloned.previous = null;
             cloned.next = null;
             cloned.predecessor = null;
@@ -181,37 +274,71 @@ public class State implements Cloneable, Comparable<State>
             return null;
         }
     }
+
     /* Compares two states based on configurations */
-    @Override 
+    @Override
     public boolean equals(Object o)
     {
         if (this == o) return true;
         if (!(o instanceof State)) return false;
-        State state = (State) o;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (this.board[i][j] != state.board[i][j]) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return this.board == ((State) o).board;
     }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(board);
+    }
+
     /* Calculates the cost of the state based on the chosen heuristic */
     public int cost() throws IllegalArgumentException
     {
-        switch (heu) {
+        return numMoves + estimate(heu, board, numMismatchedTiles, ManhattanDistance);
+    }
+
+    /* The estimate of cost() for a board, computed from scratch: cost() - numMoves of a state with
+       that board and heuristic h */
+    static int estimate(long board, Heuristic h) throws IllegalArgumentException
+    {
+        return estimate(h, board, mismatchedTiles(board), manhattanDistance(board));
+    }
+
+    /* The estimate of heuristic h for a board, given its number of mismatched tiles and its
+       Manhattan distance, which searches carry forward from move to move */
+    static int estimate(Heuristic h, long board, int mismatched, int manhattan) throws IllegalArgumentException
+    {
+        switch (h) {
             case TileMismatch:
-                return numMoves + computeNumMismatchedTiles();
+                return mismatched;
             case ManhattanDist:
-                return numMoves + computeManhattanDistance();
+                return manhattan;
             case DoubleMoveHeuristic:
-                return numMoves + computeNumSingleDoubleMoves();
+                return numSingleDoubleMoves(manhattan);
+            case PatternDatabase:
+                return PatternDatabase.get().distance(board, false);
+            case DoubleMovePatternDatabase:
+                return PatternDatabase.get().distance(board, true);
+            case LinearConflict:
+                return manhattan + LinearConflict.conflicts(board);
+            case WalkingDistance:
+                return WalkingDistance.distance(board);
             default:
                 throw new IllegalArgumentException("Invalid heuristic");
         }
     }
 
+    /* The number of mismatched tiles after a legal move m, from the number before it */
+    static int mismatchedAfter(long board, int blank, Move m, int mismatched)
+    {
+        return after(MISMATCHED_DELTA, board, blank, m, mismatched);
+    }
+
+    /* The Manhattan distance after a legal move m, from the distance before it */
+    static int manhattanAfter(long board, int blank, Move m, int manhattan)
+    {
+        return after(MANHATTAN_DELTA, board, blank, m, manhattan);
+    }
+
     /* Compares two states based on their costs */
     @Override
     public int compareTo(State s)
@@ -219,90 +346,143 @@ public class State implements Cloneable, Comparable<State>
         return Integer.compare(this.cost(), s.cost());
     }
 
-    /* ------------ Heuristic methods -----------------  */
+    /* Returns the dense index of the board in [0, 9!), usable as a compact key in place of equals() */
+    public int rank()
+    {
+        return PermutationRank.rank(board);
+    }
 
-    /* Count the number of tiles not in their goal positions */
-    private int computeNumMismatchedTiles()
+    /* Returns the tile at the given row and column (0 for the empty tile) */
+    public int tile(int row, int col)
     {
-        if (numMismatchedTiles < 0) {
-            numMismatchedTiles = 0;
-            int[][] goal = {{1, 2, 3}, {8, 0, 4}, {7, 6, 5}};
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (board[i][j] != 0 && board[i][j] != goal[i][j]) {
-                        numMismatchedTiles++;
-                    }
-                }
+        return tileAt(board, row * 3 + col);
+    }
+
+    /* ------------ Packed board helpers -----------------  */
+
+    /* Packs a 3x3 array into nine nibbles, the cell (0, 0) ending up in the most significant one.
+       With this layout comparing two packed boards as numbers is the same as comparing them
+       lexicographically. */
+    public static long pack(int[][] tiles)
+    {
+        long packed = 0;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                packed = (packed << 4) | tiles[i][j];
             }
         }
-        return numMismatchedTiles;
+        return packed;
     }
 
-    /* Calculates the sum of the Manhattan distances of each tile from its goal position */
-    private int computeManhattanDistance()
+    /* Returns the tile stored at a cell (row * 3 + column) of a packed board */
+    public static int tileAt(long board, int cell)
     {
-        if (ManhattanDistance < 0) {
-            ManhattanDistance = 0;
-            int[][] goal = {{1, 2, 3}, {8, 0, 4}, {7, 6, 5}};
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (board[i][j] != 0) {
-                        int[] pos = findPositionInGoal(board[i][j], goal);
-                        ManhattanDistance += Math.abs(i - pos[0]) + Math.abs(j - pos[1]);
-                    }
+        return (int) (board >>> shift(cell)) & 0xF;
+    }
+
+    /* Bit offset of the nibble holding the given cell */
+    static int shift(int cell)
+    {
+        return (8 - cell) << 2;
+    }
+
+    /* Moves the tile at cell from into the empty cell; from becomes the new empty cell. The
+       heuristic values are carried over from the old board by the change for that one tile. */
+    private void slide(int from)
+    {
+        int tile = tileAt(board, from);
+        board = (board & ~(0xFL << shift(from))) | ((long) tile << shift(blank));
+
+        int delta = (tile * 9 + from) * 9 + blank;
+        numMismatchedTiles += MISMATCHED_DELTA[delta];
+        ManhattanDistance += MANHATTAN_DELTA[delta];
+        blank = from;
+    }
+
+    /* Counts the pairs of tiles (ignoring the empty one) that appear out of order in row-major order */
+    private static int inversions(long board)
+    {
+        int inversions = 0;
+        for (int i = 0; i < 8; i++) {
+            int a = tileAt(board, i);
+            if (a == 0) continue;
+            for (int j = i + 1; j < 9; j++) {
+                int b = tileAt(board, j);
+                if (b != 0 && a > b) {
+                    inversions++;
                 }
             }
         }
-        return ManhattanDistance;
+        return inversions;
     }
 
-    private int computeNumSingleDoubleMoves()
-{
-    if (numSingleDoubleMoves < 0) {
-        int[][] goal = {{1, 2, 3}, {8, 0, 4}, {7, 6, 5}};
-        numSingleDoubleMoves = 0;
-        
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] != 0) {
-                    int[] goalPos = findPositionInGoal(board[i][j], goal);
-                    int rowDiff = Math.abs(i - goalPos[0]);
-                    int colDiff = Math.abs(j - goalPos[1]);
-                    
-                    numSingleDoubleMoves += (rowDiff + colDiff + 1) / 2;
-                }
-            }
+    /* ------------ Heuristic methods -----------------  */
+
+    /* Computes the heuristic values of the board from scratch: the number of tiles not in their
+       goal positions and the sum of the Manhattan distances of each tile from its goal position.
+       Successors update them incrementally in slide(). */
+    private void computeHeuristics()
+    {
+        numMismatchedTiles = mismatchedTiles(board);
+        ManhattanDistance = manhattanDistance(board);
+    }
+
+    /* The number of mismatched tiles of a board, computed from scratch */
+    static int mismatchedTiles(long board)
+    {
+        return sum(MISMATCHED, board);
+    }
+
+    /* The Manhattan distance of a board, computed from scratch */
+    static int manhattanDistance(long board)
+    {
+        return sum(MANHATTAN, board);
+    }
+
+    /* Adds up the contributions of the tiles of a board, from MISMATCHED or MANHATTAN */
+    private static int sum(byte[] contribution, long board)
+    {
+        int sum = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            sum += contribution[tileAt(board, cell) * 9 + cell];
         }
+        return sum;
     }
-    return numSingleDoubleMoves;
-}
 
-    /* Locates the empty tile on the board */
-    private int[] findEmptyTile() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == 0) {
-                    return new int[]{i, j};
-                }
-            }
+    /* Carries a sum of contributions over a legal move, by the change for each sliding tile, from
+       MISMATCHED_DELTA or MANHATTAN_DELTA. The tiles of a double move come from cells the first
+       slide leaves alone, so both are read from the board before the move. */
+    private static int after(byte[] delta, long board, int blank, Move m, int sum)
+    {
+        for (int from : MoveTable.sources(blank, m)) {
+            sum += delta[(tileAt(board, from) * 9 + from) * 9 + blank];
+            blank = from;
         }
-        throw new IllegalStateException("No empty tile found");
+        return sum;
     }
 
-    /* Finds the goal position of a given tile */
-    private int[] findPositionInGoal(int tile, int[][] goal) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (goal[i][j] == tile) {
-                    return new int[]{i, j};
-                }
+    /* Lower bound on the number of moves when double moves are allowed. A single move changes the
+       Manhattan distance by one and a double move, which slides two tiles by one cell each, by at
+       most two, so at least half the Manhattan distance, rounded up, remains to be done. (Counting
+       each tile's distance halved and rounded up would overestimate: two tiles that are each one
+       cell from home can both get there in one double move.) */
+    private static int numSingleDoubleMoves(int manhattan)
+    {
+        return (manhattan + 1) / 2;
+    }
+
+    /* Locates the empty tile on the board */
+    private int findEmptyTile() {
+        for (int i = 0; i < 9; i++) {
+            if (tileAt(board, i) == 0) {
+                return i;
             }
         }
-        throw new IllegalArgumentException("Tile not found in goal state");
+        throw new IllegalStateException("No empty tile found");
     }
 
     /* Checks if the board configuration is valid */
-    private boolean isValidBoard() {
+    private static boolean isValidBoard(int[][] board) {
         boolean[] used = new boolean[9];
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
@@ -28,13 +28,8 @@ public class StateComparator implements Comparator<State>
     @Override
     public int compare(State s1, State s2)
     {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (s1.board[i][j] != s2.board[i][j]) {
-                    return Integer.compare(s1.board[i][j], s2.board[i][j]);
-                }
-            }
-        }
-        return 0;  // States are identical
+        // Boards are packed with the cell (0, 0) in the most significant nibble, so numeric
+        // order of the packed values is the lexicographic order described above.
+        return Long.compare(s1.board, s2.board);
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * Open-addressing hash map from a packed board (State.board) to the state carrying it.  It backs
+ * the membership tests of OrderedStateList so that findState() and removeState() no longer walk
+ * the linked list.
+ *
+ * Keys are stored as primitive longs with linear probing in a power-of-two table kept at most
+ * half full.  A key of 0 marks a free slot; it never occurs as a real board since eight of the
+ * nine nibbles of a valid configuration are non-zero.  Removal shifts later entries of the probe
+ * run back instead of leaving tombstones, so lookups stay short however many states go through
+ * the table.
+ *
+ */
+public class StateIndex
+{
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+	private State[] values;
+	private int mask;          // capacity - 1
+	private int size;
+
+	/**
+	 * Constructs an empty index.
+	 */
+	public StateIndex()
+	{
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty index that holds the expected number of states without resizing.
+	 *
+	 * @param expected
+	 */
+	public StateIndex(int expected)
+	{
+		int capacity = MIN_CAPACITY;
+		while (capacity < 2 * expected) {
+			capacity <<= 1;
+		}
+		keys = new long[capacity];
+		values = new State[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @return number of states in the index
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @param board packed board
+	 * @return the state with this board, or null if there is none
+	 */
+	public State get(long board)
+	{
+		for (int i = slot(board); keys[i] != 0; i = (i + 1) & mask) {
+			if (keys[i] == board) {
+				return values[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Maps the board of s to s, replacing any state previously stored under the same board.
+	 *
+	 * @param s
+	 */
+	public void put(State s)
+	{
+		int i = slot(s.board);
+		while (keys[i] != 0) {
+			if (keys[i] == s.board) {
+				values[i] = s;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = s.board;
+		values[i] = s;
+		if (++size > (mask + 1) >> 1) {
+			resize();
+		}
+	}
+
+	/**
+	 * Removes the entry for a board.
+	 *
+	 * @param board packed board
+	 * @return the state that was stored under the board, or null if there was none
+	 */
+	public State remove(long board)
+	{
+		int i = slot(board);
+		while (keys[i] != board) {
+			if (keys[i] == 0) {
+				return null;
+			}
+			i = (i + 1) & mask;
+		}
+		State removed = values[i];
+
+		// Backward-shift deletion: move up every later entry of the run whose home slot does
+		// not lie cyclically in (i, j], so that no probe sequence crosses the freed slot.
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (keys[j] == 0) {
+				break;
+			}
+			int home = slot(keys[j]);
+			if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = 0;
+		values[i] = null;
+		size--;
+		return removed;
+	}
+
+	/* Home slot of a board: a multiplicative (Fibonacci) hash folded to 32 bits */
+	private int slot(long board)
+	{
+		long h = board * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/* Doubles the capacity and re-inserts every entry */
+	private void resize()
+	{
+		long[] oldKeys = keys;
+		State[] oldValues = values;
+		keys = new long[oldKeys.length << 1];
+		values = new State[oldKeys.length << 1];
+		mask = keys.length - 1;
+		for (int k = 0; k < oldKeys.length; k++) {
+			if (oldKeys[k] != 0) {
+				int i = slot(oldKeys[k]);
+				while (keys[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[k];
+				values[i] = oldValues[k];
+			}
+		}
+	}
+}
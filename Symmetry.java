@@ -0,0 +1,152 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *
+ * The eight symmetries of the square (four rotations, each with or without a reflection) applied
+ * to 8-puzzle boards.  The goal
+ *
+ *     1 2 3
+ *     8   4
+ *     7 6 5
+ *
+ * maps onto itself under each of them once its tiles are relabelled to match: a quarter turn
+ * clockwise takes 1 to 3 to 5 to 7 and 2 to 4 to 6 to 8.  A symmetry k takes a board B to the
+ * board whose cell k(c) holds the relabelled tile of B at c.  Since it moves the tiles of every
+ * board and of the goal alike, B and its image are the same number of moves away from the goal,
+ * and every solution of one becomes a solution of the other by mapping each move.
+ *
+ * The boards related by symmetries form a class of at most eight, represented by its smallest
+ * packed board.  A solution found for the representative is mapped back to any board of the class
+ * with toBoard().
+ *
+ * ---- Implementation Details ----
+ *
+ * Symmetry 0 is the identity; the others are kept as tables of cells and tile labels, so applying
+ * one is a pass over the nine cells.  A move is mapped by where it takes the empty tile: a move
+ * from cell a to cell b becomes the move from k(a) to k(b), which depends on k and the move alone.
+ *
+ */
+public class Symmetry
+{
+	/** Number of symmetries, including the identity */
+	public static final int COUNT = 8;
+
+	private static final Move[] MOVES = Move.values();
+
+	private static final int[][] CELL = new int[COUNT][9];    // cell c goes to CELL[k][c]
+	private static final int[][] TILE = new int[COUNT][9];    // tile t becomes TILE[k][t]
+	private static final Move[][] MOVE = new Move[COUNT][];   // move m becomes MOVE[k][m]
+	private static final Move[][] BACK = new Move[COUNT][];   // and MOVE[k] is undone by BACK[k]
+
+	static {
+		for (int k = 0; k < COUNT; k++) {
+			for (int c = 0; c < 9; c++) {
+				int r = c / 3, col = c % 3;
+				for (int turn = 0; turn < k % 4; turn++) {    // quarter turns clockwise
+					int t = r;
+					r = col;
+					col = 2 - t;
+				}
+				if (k >= 4) {                                // then reflect left to right
+					col = 2 - col;
+				}
+				CELL[k][c] = r * 3 + col;
+			}
+			for (int c = 0; c < 9; c++) {
+				TILE[k][State.tileAt(State.GOAL, c)] = State.tileAt(State.GOAL, CELL[k][c]);
+			}
+
+			MOVE[k] = new Move[MOVES.length];
+			BACK[k] = new Move[MOVES.length];
+			for (Move m : MOVES) {
+				for (int blank = 0; blank < 9 && MOVE[k][m.ordinal()] == null; blank++) {
+					if (MoveTable.sources(blank, m).length > 0) {
+						Move image = moveBetween(CELL[k][blank], CELL[k][MoveTable.blankAfter(blank, m)]);
+						MOVE[k][m.ordinal()] = image;
+						BACK[k][image.ordinal()] = m;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param board packed board
+	 * @param k     symmetry, 0 to COUNT - 1
+	 * @return the packed image of board under symmetry k
+	 */
+	public static long transform(long board, int k)
+	{
+		long image = 0;
+		for (int c = 0; c < 9; c++) {
+			image |= (long) TILE[k][State.tileAt(board, c)] << State.shift(CELL[k][c]);
+		}
+		return image;
+	}
+
+	/**
+	 * @param board packed board
+	 * @return the symmetry that takes board to the representative of its class; the lowest such
+	 *         symmetry if there are several
+	 */
+	public static int canonicalSymmetry(long board)
+	{
+		int best = 0;
+		long min = board;
+		for (int k = 1; k < COUNT; k++) {
+			long image = transform(board, k);
+			if (image < min) {
+				min = image;
+				best = k;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param board packed board
+	 * @return the representative of the class of board
+	 */
+	public static long canonical(long board)
+	{
+		return transform(board, canonicalSymmetry(board));
+	}
+
+	/**
+	 * @param m
+	 * @param k symmetry
+	 * @return the move that does on the image of a board under k what m does on the board
+	 */
+	public static Move transform(Move m, int k)
+	{
+		return MOVE[k][m.ordinal()];
+	}
+
+	/**
+	 * Maps a sequence of moves on the image of a board under symmetry k back to the board, so a
+	 * solution of transform(board, k) becomes a solution of board.
+	 *
+	 * @param moves moves on the image
+	 * @param k     symmetry
+	 * @return the corresponding moves on the board, in a new array
+	 */
+	public static Move[] toBoard(Move[] moves, int k)
+	{
+		Move[] mapped = new Move[moves.length];
+		for (int i = 0; i < moves.length; i++) {
+			mapped[i] = BACK[k][moves[i].ordinal()];
+		}
+		return mapped;
+	}
+
+	/* The move that takes the empty tile from cell a to cell b, in a straight line */
+	private static Move moveBetween(int a, int b)
+	{
+		for (Move m : MOVES) {
+			if (MoveTable.sources(a, m).length > 0 && MoveTable.blankAfter(a, m) == b) {
+				return m;
+			}
+		}
+		throw new IllegalStateException("No move from cell " + a + " to cell " + b);
+	}
+}
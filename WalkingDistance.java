@@ -0,0 +1,133 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * The walking distance heuristic, Heuristic.WalkingDistance.
+ *
+ * Looking only at rows, a board is described by how many tiles of each goal row are in each row,
+ * and by the row of the empty tile.  A move within a row changes nothing in that description; a
+ * move between rows takes a tile from the row next to the empty tile into the empty tile's row.
+ * The vertical walking distance is the least number of such moves that turns the description of
+ * the board into that of the goal, found by breadth-first search over all descriptions.  The
+ * horizontal walking distance is the same for columns.  Every move of the puzzle is either
+ * vertical or horizontal and only counts toward one of the two, so their sum is a lower bound on
+ * the number of moves to the goal.  Unlike the Manhattan distance, it accounts for tiles blocking
+ * each other on their way along a column or row.
+ *
+ * ---- Implementation Details ----
+ *
+ * A description is packed into 20 bits: the count of tiles in line i with goal line j in bits
+ * 2 * (3i + j) (no count exceeds 3), and the line of the empty tile in bits 18 and 19.  The
+ * distances are kept in a table indexed by that key.  The contribution of a line to the key
+ * depends only on its three tiles, so it is precomputed for every content of every row and every
+ * column, and the key of a board is the sum of three lookups.
+ *
+ */
+public class WalkingDistance
+{
+	private static final int BLANK = 18;                       // bit offset of the empty tile's line
+	private static final int UNREACHABLE = 0xFF;
+
+	private static final int[][] ROW_KEY = new int[3][1 << 12];    // key of row r by its tiles
+	private static final int[][] COLUMN_KEY = new int[3][1 << 12]; // key of column c by its tiles
+	private static final byte[] VERTICAL;                          // distance by row key
+	private static final byte[] HORIZONTAL;                        // distance by column key
+
+	static {
+		int[] goalCell = new int[9];
+		for (int cell = 0; cell < 9; cell++) {
+			goalCell[State.tileAt(State.GOAL, cell)] = cell;
+		}
+
+		for (int line = 0; line < 3; line++) {
+			for (int tiles = 0; tiles < 1 << 12; tiles++) {
+				int rowKey = 0, columnKey = 0;
+				for (int i = 0; i < 3; i++) {
+					int tile = (tiles >>> ((2 - i) << 2)) & 0xF;
+					if (tile == 0) {
+						rowKey += line << BLANK;
+						columnKey += line << BLANK;
+					} else if (tile <= 8) {
+						rowKey += 1 << 2 * (3 * line + goalCell[tile] / 3);
+						columnKey += 1 << 2 * (3 * line + goalCell[tile] % 3);
+					}
+				}
+				ROW_KEY[line][tiles] = rowKey;
+				COLUMN_KEY[line][tiles] = columnKey;
+			}
+		}
+
+		int rowGoal = rowKey(State.GOAL), columnGoal = columnKey(State.GOAL);
+		VERTICAL = distances(rowGoal);
+		HORIZONTAL = columnGoal == rowGoal ? VERTICAL : distances(columnGoal);
+	}
+
+	/**
+	 * @param board packed board
+	 * @return the vertical plus the horizontal walking distance of board
+	 */
+	public static int distance(long board)
+	{
+		return VERTICAL[rowKey(board)] + HORIZONTAL[columnKey(board)];
+	}
+
+	private static int rowKey(long board)
+	{
+		return ROW_KEY[0][(int) (board >>> State.shift(2)) & 0xFFF]
+				+ ROW_KEY[1][(int) (board >>> State.shift(5)) & 0xFFF]
+				+ ROW_KEY[2][(int) (board >>> State.shift(8)) & 0xFFF];
+	}
+
+	private static int columnKey(long board)
+	{
+		int key = 0;
+		for (int col = 0; col < 3; col++) {
+			int tiles = State.tileAt(board, col) << 8 | State.tileAt(board, col + 3) << 4
+					| State.tileAt(board, col + 6);
+			key += COLUMN_KEY[col][tiles];
+		}
+		return key;
+	}
+
+	/**
+	 * Breadth-first search over the descriptions reachable from the goal's.  A move between lines
+	 * can be undone, so distances from the goal are also distances to it.
+	 *
+	 * @param goal key of the goal
+	 * @return distance by key, UNREACHABLE for keys that describe no board
+	 */
+	private static byte[] distances(int goal)
+	{
+		byte[] dist = new byte[1 << 20];
+		Arrays.fill(dist, (byte) UNREACHABLE);
+
+		int[] queue = new int[1 << 12];
+		int head = 0, tail = 0;
+		queue[tail++] = goal;
+		dist[goal] = 0;
+
+		while (head < tail) {
+			int key = queue[head++];
+			int blank = key >>> BLANK;
+			for (int from = blank - 1; from <= blank + 1; from += 2) {
+				if (from < 0 || from > 2) {
+					continue;
+				}
+				for (int j = 0; j < 3; j++) {
+					if ((key >>> 2 * (3 * from + j) & 3) == 0) {
+						continue;
+					}
+					int next = key - (1 << 2 * (3 * from + j)) + (1 << 2 * (3 * blank + j));
+					next = (next & ((1 << BLANK) - 1)) | from << BLANK;
+					if ((dist[next] & 0xFF) == UNREACHABLE) {
+						dist[next] = (byte) (dist[key] + 1);
+						queue[tail++] = next;
+					}
+				}
+			}
+		}
+		return dist;
+	}
+}
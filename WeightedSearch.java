@@ -0,0 +1,369 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ *
+ * Weighted A* and its anytime form, ARA*, for the 8-puzzle.  Weighted A* orders OPEN by
+ * g + w * h instead of g + h, h being the estimate of State.cost() and w a weight of at least 1.
+ * Trusting the estimate more makes the search head for the goal sooner and expand fewer states,
+ * and the solution it finds is at most w times as long as an optimal one.
+ *
+ * The anytime search (Likhachev, Gordon and Thrun, "ARA*: Anytime A* with Provable Bounds on
+ * Sub-Optimality") starts with a large weight and finds a first solution quickly, then lowers the
+ * weight and searches again for as long as time remains, each time reusing the states reached so
+ * far.  Every solution it finds comes with the bound of its own search; once the weight is down to
+ * 1 and that search completes, the solution is optimal.
+ *
+ * The bound reported in the SearchResult is the smaller of w and the length of the solution over
+ * the lowest g + h on OPEN, which is a lower bound on the optimal length.
+ *
+ * ---- Implementation Details ----
+ *
+ * Weights are kept in hundredths, so the key g * 100 + w * h of a state is an integer and OPEN can
+ * be a bucket queue as in BidirectionalSearch: each bucket a stack linked through State.next, with
+ * an index of the cheapest state reached for each board, and states superseded by a cheaper path
+ * left in their bucket and skipped when they come up.  An expanded state is left linked to itself,
+ * which tells it from a state still on OPEN when a cheaper path to its board turns up in a later
+ * search, after CLOSED has been emptied.
+ *
+ * A search with weight w stops as soon as the goal has been reached at a cost no higher than the
+ * lowest key on OPEN.  A state reached more cheaply after it was expanded is not reopened but set
+ * aside; before the next search all of them go back onto OPEN, every key is recomputed with the
+ * new weight, and CLOSED starts empty again.  The estimates of all the heuristics are consistent,
+ * which is what the bound of a search without reopening relies on.
+ *
+ * A WeightedSearch runs once: the states it reaches stay with it, so search() or anytime() may be
+ * called only once per instance.
+ *
+ * Within a SearchBudget, the states kept are those reached.  A first search stopped by the budget
+ * gives a result that leads to the goal if it has been reached, else to the expanded state of
+ * lowest estimate, with the lowest g + h still to be expanded as its lower bound; a later search
+ * of ARA* that runs out of budget is abandoned like one that runs out of time.
+ *
+ */
+public class WeightedSearch
+{
+	private static final int SCALE = 100;    // weights are kept in hundredths
+
+	private final State start;
+	private final Heuristic heu;
+	private final int initialWeight;
+
+	private int weight;                                  // weight of the current search, scaled
+	private final StateIndex reached = new StateIndex(); // cheapest state reached for each board
+	private ClosedList closed;
+	private final ArrayList<State> inconsistent = new ArrayList<>();   // reached again once closed
+	private State[] buckets = new State[256];
+	private int minBucket = 0;
+	private int open = 0;                                // number of live states on OPEN
+	private boolean used;                                // whether a search has been run
+	private State promising;                             // expanded state of lowest estimate
+	private int promisingEstimate = Integer.MAX_VALUE;
+	private SearchBudget.Limit limit;                    // the limit the last search ran into
+
+	private final SearchResult.Counters count = new SearchResult.Counters();
+
+	/**
+	 * @param s0  initial state; it is not modified
+	 * @param h   heuristic
+	 * @param w   weight of the estimate, at least 1; it is rounded to hundredths
+	 * @throws IllegalArgumentException if w is less than 1
+	 */
+	public WeightedSearch(State s0, Heuristic h, double w) throws IllegalArgumentException
+	{
+		if (!(w >= 1)) {
+			throw new IllegalArgumentException("The weight must be at least 1");
+		}
+		start = s0;
+		heu = h;
+		initialWeight = (int) Math.round(w * SCALE);
+	}
+
+	/**
+	 * Runs weighted A*.
+	 *
+	 * @return the solution string produced by EightPuzzle.solutionPath(), or "No solution found"
+	 *         if the initial state cannot reach the goal
+	 */
+	public String solve()
+	{
+		return search().solution();
+	}
+
+	/**
+	 * Runs weighted A*, and publishes its result to SearchEvents.
+	 *
+	 * @return the result, without a solution if the initial state cannot reach the goal
+	 * @throws IllegalStateException if this instance has already run a search
+	 */
+	public SearchResult search() throws IllegalStateException
+	{
+		return search(SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs weighted A* within a budget, checked before every expansion as in
+	 * EightPuzzle.search(State, Heuristic, SearchBudget), and publishes its result to SearchEvents.
+	 *
+	 * @param budget  limits of the search
+	 * @return the result, without a solution if the initial state cannot reach the goal or the
+	 *         search was stopped by its budget
+	 * @throws IllegalStateException if this instance has already run a search
+	 */
+	public SearchResult search(SearchBudget budget) throws IllegalStateException
+	{
+		long begin = System.nanoTime();
+		SearchResult result = improve("Weighted A*", begin, Long.MAX_VALUE, null, budget);
+		return SearchEvents.publish(result);
+	}
+
+	/**
+	 * Runs ARA*: a first search with the weight of this search, then searches with ever lower
+	 * weights while time remains.  The first search always runs to the end, however long it
+	 * takes; a later one is abandoned when time runs out, and the solution of the one before it is
+	 * returned.  The final result is published to SearchEvents.
+	 *
+	 * @param nanos     time allowed, in nanoseconds
+	 * @param improved  called with the result of every completed search, in order, or null
+	 * @return the result of the last completed search
+	 * @throws IllegalStateException if this instance has already run a search
+	 */
+	public SearchResult anytime(long nanos, SearchListener improved) throws IllegalStateException
+	{
+		return anytime(nanos, improved, SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Runs ARA* as anytime(nanos, improved), within a budget as well.  The budget applies to the
+	 * run as a whole and also stops the first search.
+	 *
+	 * @param nanos     time allowed, in nanoseconds
+	 * @param improved  called with the result of every completed search, in order, or null
+	 * @param budget    limits of the run
+	 * @return the result of the last completed search, or a result without a solution if the
+	 *         first search was stopped by the budget
+	 * @throws IllegalStateException if this instance has already run a search
+	 */
+	public SearchResult anytime(long nanos, SearchListener improved, SearchBudget budget)
+			throws IllegalStateException
+	{
+		long begin = System.nanoTime();
+		return SearchEvents.publish(improve("ARA*", begin, begin + nanos, improved, budget));
+	}
+
+	/*
+	 * Searches with decreasing weights, down to 1 or until the deadline, and returns the result of
+	 * the last completed search.  With a deadline of Long.MAX_VALUE, searches only once.
+	 */
+	private SearchResult improve(String engine, long begin, long deadline, SearchListener improved,
+			SearchBudget budget) throws IllegalStateException
+	{
+		if (used) {
+			throw new IllegalStateException("A WeightedSearch can only be run once");
+		}
+		used = true;
+		weight = initialWeight;
+		if (!start.solvable()) {
+			return new SearchResult(engine, start, heu, null, count, System.nanoTime() - begin);
+		}
+		State root = start.startFor(heu);
+		reached.put(root);
+		push(root);
+
+		closed = ClosedList.acquire();
+		try {
+			SearchResult result = null;
+			while (true) {
+				if (!search(result == null ? Long.MAX_VALUE : deadline, budget, begin)) {
+					if (result == null) {
+						return stopped(engine, begin);
+					}
+					break;                                 // out of time or budget
+				}
+				result = new SearchResult(engine, start, heu, EightPuzzle.solutionMoves(reached.get(State.GOAL)),
+						count.copy(), System.nanoTime() - begin, bound());
+				if (improved != null) {
+					improved.searchFinished(result);
+				}
+				if (weight == SCALE || deadline == Long.MAX_VALUE || System.nanoTime() >= deadline) {
+					break;
+				}
+				lowerWeight();
+			}
+			return result;
+		} finally {
+			closed.release();
+		}
+	}
+
+	/*
+	 * Expands states until the goal has been reached at a cost no higher than the lowest key on
+	 * OPEN.  Returns false if the deadline passed first, or the budget ran out, which leaves limit
+	 * set.
+	 */
+	private boolean search(long deadline, SearchBudget budget, long begin)
+	{
+		while (true) {
+			State goal = reached.get(State.GOAL);
+			int min = minKey();
+			if (min == Integer.MAX_VALUE || goal != null && SCALE * goal.numMoves <= min) {
+				return true;
+			}
+			if (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline) {
+				return false;
+			}
+			limit = budget.check(begin, count.expanded, reached.size());
+			if (limit != null) {
+				return false;
+			}
+
+			State s = pop();
+			closed.addState(s);
+			count.expanded++;
+			if (s.cost() - s.numMoves < promisingEstimate) {
+				promising = s;
+				promisingEstimate = s.cost() - s.numMoves;
+			}
+
+			for (Move m : MoveTable.legalMoves(s.blank, heu.doubleMoves())) {
+				State t = s.successorState(m);
+				count.generated++;
+
+				State known = reached.get(t.board);
+				if (known != null && known.numMoves <= t.numMoves) {
+					count.duplicates++;
+					continue;
+				}
+				reached.put(t);
+				if (closed.contains(t)) {
+					inconsistent.add(t);
+				} else {
+					if (known != null && known.next != known) {
+						open--;          // the known state is superseded on OPEN
+					}
+					push(t);
+				}
+			}
+			count.open(open + inconsistent.size());
+			count.closed(closed.size());
+		}
+	}
+
+	/* Halves the excess of the weight over 1, and puts every state to be expanded back on OPEN */
+	private void lowerWeight()
+	{
+		int excess = (weight - SCALE) / 2;
+		weight = excess < 5 ? SCALE : SCALE + excess;
+
+		ArrayList<State> live = new ArrayList<>(open + inconsistent.size());
+		for (State bucket : buckets) {
+			for (State s = bucket; s != null; s = s.next) {
+				if (reached.get(s.board) == s) {
+					live.add(s);
+				}
+			}
+		}
+		for (State s : inconsistent) {
+			if (reached.get(s.board) == s) {
+				live.add(s);
+			}
+		}
+		inconsistent.clear();
+		closed.clear();
+
+		Arrays.fill(buckets, null);
+		minBucket = 0;
+		open = 0;
+		for (State s : live) {
+			push(s);
+		}
+	}
+
+	/* The result of a first search stopped by its budget */
+	private SearchResult stopped(String engine, long begin)
+	{
+		State goal = reached.get(State.GOAL);
+		Move[] partial = goal != null ? EightPuzzle.solutionMoves(goal)
+				: promising != null ? EightPuzzle.solutionMoves(promising) : new Move[0];
+		int lowerBound = goal != null ? Math.min(goal.numMoves, lowestCost()) : lowestCost();
+		return new SearchResult(engine, start, heu, count, System.nanoTime() - begin, limit, partial, lowerBound);
+	}
+
+	/* The smaller of the weight and the solution length over the lowest g + h to be expanded */
+	private double bound()
+	{
+		int lowest = lowestCost();
+		int length = reached.get(State.GOAL).numMoves;
+		if (lowest >= length) {
+			return 1;
+		}
+		return Math.min((double) weight / SCALE, (double) length / lowest);
+	}
+
+	/* Lowest g + h of a state to be expanded, Integer.MAX_VALUE if there is none */
+	private int lowestCost()
+	{
+		int lowest = Integer.MAX_VALUE;
+		for (State bucket : buckets) {
+			for (State s = bucket; s != null; s = s.next) {
+				if (reached.get(s.board) == s) {
+					lowest = Math.min(lowest, s.cost());
+				}
+			}
+		}
+		for (State s : inconsistent) {
+			if (reached.get(s.board) == s) {
+				lowest = Math.min(lowest, s.cost());
+			}
+		}
+		return lowest;
+	}
+
+	/* g * SCALE + w * h, h being the estimate of State.cost() */
+	private int key(State s)
+	{
+		return s.numMoves * SCALE + weight * (s.cost() - s.numMoves);
+	}
+
+	private void push(State s)
+	{
+		int key = key(s);
+		if (key >= buckets.length) {
+			buckets = Arrays.copyOf(buckets, Math.max(2 * buckets.length, key + 1));
+		}
+		s.next = buckets[key];
+		buckets[key] = s;
+		minBucket = Math.min(minBucket, key);
+		open++;
+	}
+
+	/* Lowest key on OPEN, Integer.MAX_VALUE if it is empty */
+	private int minKey()
+	{
+		while (minBucket < buckets.length) {
+			State s = buckets[minBucket];
+			if (s == null) {
+				minBucket++;
+			} else if (reached.get(s.board) != s) {
+				buckets[minBucket] = s.next;    // superseded
+			} else {
+				return minBucket;
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	/* Removes a state of lowest key, and links it to itself to mark it expanded; minKey() must have
+	   found one */
+	private State pop()
+	{
+		minKey();
+		State s = buckets[minBucket];
+		buckets[minBucket] = s.next;
+		s.next = s;
+		open--;
+		return s;
+	}
+}
@@ -0,0 +1,135 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.iastate.cs472.proj1.benchmarks.Boards;
+
+/**
+ *
+ * Micro-benchmarks of NodeArena, the nodes and OPEN list of EightPuzzle.search(), on the N states
+ * of DataStructureBenchmark, so the scores compare with those of the structures of the other
+ * engines.  Scores are per operation.  The class is in the package of the solver, as NodeArena
+ * is package-private.
+ *
+ * The operations that add nodes take the arena of their thread and give it back, as a search
+ * does, so after the first invocation they reuse its arrays.  find looks up an arena filled once
+ * per trial, which is held apart from the one of the thread.
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NodeArenaBenchmark
+{
+	static final int N = 1024;           // as in DataStructureBenchmark
+
+	private final long[] board = new long[N];
+	private final int[] blank = new int[N];
+	private final int[] g = new int[N];
+	private final int[] h = new int[N];
+	private final int[] mismatched = new int[N];
+	private final int[] manhattan = new int[N];
+
+	/**
+	 * An arena holding a node for each state, filled once per trial.
+	 */
+	@org.openjdk.jmh.annotations.State(Scope.Thread)
+	public static class Filled
+	{
+		NodeArena arena;
+
+		@Setup(Level.Trial)
+		public void setUp(NodeArenaBenchmark b)
+		{
+			arena = NodeArena.acquire();
+			b.add(arena, false);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown()
+		{
+			arena.release();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		State[] states = Boards.breadthFirst(N, Heuristic.ManhattanDist);
+		for (int i = 0; i < N; i++) {
+			State s = states[i];
+			board[i] = s.board;
+			blank[i] = s.blank;
+			g[i] = s.numMoves;
+			h[i] = s.cost() - s.numMoves;
+			mismatched[i] = State.mismatchedTiles(s.board);
+			manhattan[i] = State.manhattanDistance(s.board);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int arenaAdd()
+	{
+		NodeArena arena = NodeArena.acquire();
+		try {
+			add(arena, false);
+			return arena.size();
+		} finally {
+			arena.release();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void arenaFind(Filled f, Blackhole bh)
+	{
+		for (long b : board) {
+			bh.consume(f.arena.find(b));
+		}
+	}
+
+	/* Each operation adds a node, pushes it onto OPEN and later pops the one of lowest cost */
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void arenaAddPushAndPop(Blackhole bh)
+	{
+		NodeArena arena = NodeArena.acquire();
+		try {
+			add(arena, true);
+			for (int n; (n = arena.pop()) >= 0; ) {
+				bh.consume(n);
+			}
+		} finally {
+			arena.release();
+		}
+	}
+
+	/* Adds a node for each state, with no parent, and pushes it onto OPEN if push */
+	private void add(NodeArena arena, boolean push)
+	{
+		for (int i = 0; i < N; i++) {
+			int n = arena.add(board[i], blank[i], g[i], h[i], mismatched[i], manhattan[i], -1, null);
+			if (push) {
+				arena.push(n, g[i] + h[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.iastate.cs472.proj1.PatternDatabase;
+
+/**
+ *
+ * Runs the benchmarks.  Takes the usual JMH command line, for instance a regular expression
+ * selecting benchmarks and -p heuristic=ManhattanDist to fix a parameter, and adds to it:
+ *
+ *     the GC profiler, so every score comes with its allocation rate per operation;
+ *     results in JSON, by default to jmh-result.json, to keep as the baseline of a change;
+ *     the pattern database, built first if the file named by -Dpuzzle.pdb (default 8Puzzle.pdb)
+ *     does not exist, and passed on to the forked benchmark JVMs.
+ *
+ */
+public class Benchmarks
+{
+	public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException
+	{
+		CommandLineOptions cmd = new CommandLineOptions(args);
+
+		Path pdb = Paths.get(System.getProperty("puzzle.pdb", PatternDatabase.DEFAULT_FILE)).toAbsolutePath();
+		if (!Files.exists(pdb)) {
+			PatternDatabase.main(new String[]{pdb.toString()});
+		}
+
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(cmd)
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend("-Dpuzzle.pdb=" + pdb);
+		if (!cmd.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		Options opts = options.build();
+
+		new Runner(opts).run();
+	}
+}
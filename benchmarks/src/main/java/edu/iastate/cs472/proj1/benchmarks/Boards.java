@@ -0,0 +1,62 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.util.Arrays;
+
+import edu.iastate.cs472.proj1.Heuristic;
+import edu.iastate.cs472.proj1.MoveTable;
+import edu.iastate.cs472.proj1.Move;
+import edu.iastate.cs472.proj1.State;
+import edu.iastate.cs472.proj1.StateIndex;
+
+/**
+ *
+ * Distinct states for the data-structure benchmarks, as a search would create them: the first
+ * states reached by breadth-first search from the goal, each the successor of an earlier one, so
+ * their costs spread over a range like those on an OPEN list.  Public for NodeArenaBenchmark,
+ * which is in the package of the solver.
+ *
+ */
+public final class Boards
+{
+	private Boards()
+	{
+	}
+
+	/**
+	 * @param n  number of states
+	 * @param h  heuristic the states carry
+	 * @return n states with distinct boards, in breadth-first order
+	 */
+	public static State[] breadthFirst(int n, Heuristic h)
+	{
+		State[] states = new State[n];
+		StateIndex seen = new StateIndex(n);
+		states[0] = new State(State.GOAL).startFor(h);
+		seen.put(states[0]);
+
+		int count = 1;
+		for (int i = 0; count < n; i++) {
+			for (Move m : MoveTable.legalMoves(states[i].blank, false)) {
+				State t = states[i].successorState(m);
+				if (count < n && seen.get(t.board) == null) {
+					seen.put(t);
+					states[count++] = t;
+				}
+			}
+		}
+		return states;
+	}
+
+	/**
+	 * @param states
+	 * @return copies of the states, which can be linked into a list without disturbing the originals
+	 */
+	public static State[] copies(State[] states)
+	{
+		State[] copies = Arrays.copyOf(states, states.length);
+		for (int i = 0; i < copies.length; i++) {
+			copies[i] = (State) states[i].clone();
+		}
+		return copies;
+	}
+}
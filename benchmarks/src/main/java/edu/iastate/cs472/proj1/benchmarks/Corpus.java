@@ -0,0 +1,57 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.iastate.cs472.proj1.BatchSolver;
+import edu.iastate.cs472.proj1.State;
+
+/**
+ *
+ * The fixed puzzles the benchmarks solve, grouped by optimal depth.  Each group is a resource
+ * corpus/depth-d.txt of ten solvable boards, one per line in the batch input format, all exactly d
+ * single moves from the goal.  The boards were drawn at random and are checked in, so every run
+ * solves the same puzzles; the files can also be fed to PuzzleSolver --batch.
+ *
+ */
+final class Corpus
+{
+	/** Optimal depths with a corpus group */
+	static final String[] DEPTHS = {"12", "20", "28"};
+
+	private Corpus()
+	{
+	}
+
+	/**
+	 * @param depth one of DEPTHS
+	 * @return the initial states of the group
+	 */
+	static State[] load(String depth)
+	{
+		String name = "/corpus/depth-" + depth + ".txt";
+		InputStream in = Corpus.class.getResourceAsStream(name);
+		if (in == null) {
+			throw new IllegalArgumentException("No corpus for depth " + depth);
+		}
+
+		List<State> states = new ArrayList<>();
+		try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+			String line;
+			while ((line = r.readLine()) != null) {
+				if (!line.trim().isEmpty()) {
+					states.add(new State(BatchSolver.parseBoard(line)));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return states.toArray(new State[0]);
+	}
+}
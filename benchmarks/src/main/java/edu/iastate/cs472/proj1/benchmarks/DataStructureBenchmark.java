@@ -0,0 +1,215 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.iastate.cs472.proj1.ClosedList;
+import edu.iastate.cs472.proj1.Heuristic;
+import edu.iastate.cs472.proj1.OrderedStateList;
+import edu.iastate.cs472.proj1.PermutationRank;
+import edu.iastate.cs472.proj1.State;
+import edu.iastate.cs472.proj1.StateIndex;
+
+/**
+ *
+ * Micro-benchmarks of the data structures of the engines other than EightPuzzle.search(), each
+ * operation applied to N distinct states; the nodes of EightPuzzle.search() are in NodeArena,
+ * which NodeArenaBenchmark measures on the same states.  Scores are per operation.
+ *
+ *     open...      OrderedStateList, the OPEN list of the ParallelSearch workers
+ *     closed...    ClosedList, of ParallelSearch, WeightedSearch, BidirectionalSearch and
+ *                  MemoryBoundedSearch
+ *     index...     StateIndex, of BidirectionalSearch and WeightedSearch
+ *
+ * The OPEN list is measured both as a bucket queue and as the sorted linked list it replaced,
+ * with its own State holding the bucketed parameter so that the other benchmarks run once; the
+ * operations that need a filled structure fill it once per trial, and those that modify an OPEN
+ * list fill it as part of the operation.  The ClosedList to add to is allocated before each
+ * invocation, outside the measurement.
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DataStructureBenchmark
+{
+	static final int N = 1024;
+
+	private State[] states;
+	private ClosedList closed;
+	private StateIndex index;
+
+	/**
+	 * The OPEN list, as a bucket queue or as a sorted list.
+	 */
+	@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+	public static class Open
+	{
+		@Param({"true", "false"})
+		public boolean bucketed;
+
+		State[] states;             // linked into a new list by each operation that modifies one
+		OrderedStateList open;      // filled with copies of the states
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			states = Boards.breadthFirst(N, Heuristic.ManhattanDist);
+			open = newList();
+			for (State s : Boards.copies(states)) {
+				open.addState(s);
+			}
+		}
+
+		OrderedStateList newList()
+		{
+			return new OrderedStateList(true, bucketed);
+		}
+	}
+
+	/**
+	 * An empty ClosedList, new for every invocation.
+	 */
+	@org.openjdk.jmh.annotations.State(Scope.Thread)
+	public static class EmptyClosed
+	{
+		ClosedList list;
+
+		@Setup(Level.Invocation)
+		public void setUp()
+		{
+			list = new ClosedList();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		states = Boards.breadthFirst(N, Heuristic.ManhattanDist);
+
+		closed = new ClosedList();
+		index = new StateIndex();
+		for (State s : Boards.copies(states)) {
+			closed.addState(s);
+			index.put(s);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public OrderedStateList openAddState(Open o)
+	{
+		OrderedStateList list = o.newList();
+		for (State s : o.states) {
+			list.addState(s);
+		}
+		return list;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void openFindState(Open o, Blackhole bh)
+	{
+		for (State s : o.states) {
+			bh.consume(o.open.findState(s));
+		}
+	}
+
+	/* Each operation adds a state and later removes the one of lowest cost */
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void openAddStateAndRemove(Open o, Blackhole bh)
+	{
+		OrderedStateList list = o.newList();
+		for (State s : o.states) {
+			list.addState(s);
+		}
+		while (!list.isEmpty()) {
+			bh.consume(list.remove());
+		}
+	}
+
+	/* Each operation adds a state and later removes it by reference */
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int openAddStateAndRemoveState(Open o)
+	{
+		OrderedStateList list = o.newList();
+		for (State s : o.states) {
+			list.addState(s);
+		}
+		for (State s : o.states) {
+			list.removeState(s);
+		}
+		return list.size();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public ClosedList closedAddState(EmptyClosed c)
+	{
+		ClosedList list = c.list;
+		for (State s : states) {
+			list.addState(s);
+		}
+		return list;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int closedNumMoves()
+	{
+		int sum = 0;
+		for (State s : states) {
+			sum += closed.numMoves(s);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public StateIndex indexPut()
+	{
+		StateIndex idx = new StateIndex();
+		for (State s : states) {
+			idx.put(s);
+		}
+		return idx;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void indexGet(Blackhole bh)
+	{
+		for (State s : states) {
+			bh.consume(index.get(s.board));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int permutationRank()
+	{
+		int sum = 0;
+		for (State s : states) {
+			sum += PermutationRank.rank(s.board);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,58 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.iastate.cs472.proj1.EightPuzzle;
+import edu.iastate.cs472.proj1.Heuristic;
+import edu.iastate.cs472.proj1.State;
+
+/**
+ *
+ * Hash-distributed A* (ParallelSearch) on the hardest puzzles of the corpus: one operation solves
+ * every puzzle of depth 28 with one heuristic on a number of threads, including printing the
+ * solution.  Comparing the scores across thread counts gives the speedup of a single search.
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParallelSearchBenchmark
+{
+	@Param
+	public Heuristic heuristic;
+
+	@Param({"1", "2", "4", "8", "16"})
+	public int threads;
+
+	private State[] puzzles;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		puzzles = Corpus.load("28");
+	}
+
+	@Benchmark
+	public void parallelAStar(Blackhole bh)
+	{
+		for (State s0 : puzzles) {
+			bh.consume(EightPuzzle.ParallelAStar(s0, heuristic, threads));
+		}
+	}
+}
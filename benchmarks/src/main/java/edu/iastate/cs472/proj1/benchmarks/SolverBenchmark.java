@@ -0,0 +1,57 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.iastate.cs472.proj1.EightPuzzle;
+import edu.iastate.cs472.proj1.Heuristic;
+import edu.iastate.cs472.proj1.State;
+
+/**
+ *
+ * End-to-end A* on the corpus: one operation solves every puzzle of a depth group with one
+ * heuristic, including printing the solution.
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SolverBenchmark
+{
+	@Param
+	public Heuristic heuristic;
+
+	@Param({"12", "20", "28"})
+	public String depth;
+
+	private State[] puzzles;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		puzzles = Corpus.load(depth);
+	}
+
+	@Benchmark
+	public void aStar(Blackhole bh)
+	{
+		for (State s0 : puzzles) {
+			bh.consume(EightPuzzle.AStar(s0, heuristic));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package edu.iastate.cs472.proj1.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.iastate.cs472.proj1.Heuristic;
+import edu.iastate.cs472.proj1.Move;
+import edu.iastate.cs472.proj1.MoveTable;
+import edu.iastate.cs472.proj1.State;
+
+/**
+ *
+ * Micro-benchmarks of the per-state work of a search, for each heuristic: generating the legal
+ * successors of a state, and computing its cost.  Scores are per state.
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StateBenchmark
+{
+	static final int N = 1024;
+
+	@Param
+	public Heuristic heuristic;
+
+	private State[] states;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		states = Boards.breadthFirst(N, heuristic);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public void successorStates(Blackhole bh)
+	{
+		for (State s : states) {
+			for (Move m : MoveTable.legalMoves(s.blank, heuristic.doubleMoves())) {
+				bh.consume(s.successorState(m));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int cost()
+	{
+		int sum = 0;
+		for (State s : states) {
+			sum += s.cost();
+		}
+		return sum;
+	}
+}